@@ -0,0 +1,52 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an elevator bidding on a request against the bank, as it knows it.
+ */
+@Name("elevator.BidRound")
+@Label("Bid Round")
+@Category("Elevator")
+@Description("An elevator comparing its bid for a request to the rest of the bank's")
+public class BidRoundEvent extends jdk.jfr.Event {
+
+  @Label("Elevator")
+  int elevatorId;
+
+  @Label("Request Floor")
+  int requestFloor;
+
+  @Label("Request Direction")
+  String requestDirection;
+
+  @Label("Request Priority")
+  int requestPriority;
+
+  @Label("Bank Size")
+  @Description("Number of elevators that bid, including this one")
+  int bankSize;
+
+  @Label("Winning Elevator")
+  int winningElevatorId;
+
+  /**
+   * Commits this event, if it's enabled and over its threshold.
+   * @param elevatorId bidding elevator.
+   * @param request the request bid on.
+   * @param bankSize number of elevators that bid.
+   * @param winningElevatorId elevator with the lowest bid.
+   */
+  void emit(int elevatorId, FloorDestination request, int bankSize, int winningElevatorId) {
+    if( !shouldCommit() ) return;
+
+    this.elevatorId = elevatorId;
+    this.requestFloor = request.getFloor();
+    this.requestDirection = request.getDirection().toString();
+    this.requestPriority = request.getPriority();
+    this.bankSize = bankSize;
+    this.winningElevatorId = winningElevatorId;
+    commit();
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ * A destination dispatch request:  a rider enters where they're going at a
+ * panel on their floor, instead of a direction, so the bank knows every rider's
+ * destination before they board.  See {@link ElevatorBank#assign(DestinationRequest)}.
+ * @param origin floor the rider is waiting at.
+ * @param destination floor the rider is going to.
+ */
+public record DestinationRequest(int origin, int destination) {
+
+  /**
+   * Creates a DestinationRequest.
+   * @throws IllegalArgumentException if origin and destination are the same floor.
+   */
+  public DestinationRequest {
+    if( origin == destination ) throw new IllegalArgumentException("Destination can't be the origin floor");
+  }
+
+  /**
+   * The direction the rider travels in.
+   * @return {@link Direction#UP} or {@link Direction#DOWN}.
+   */
+  public Direction direction() {
+    return origin < destination ? Direction.UP : Direction.DOWN;
+  }
+
+  /**
+   * The hall call to pick the rider up.
+   * @return origin floor, in the direction of travel.
+   */
+  public FloorDestination pickup() {
+    return new FloorDestination(origin, direction());
+  }
+
+  /**
+   * The button press to drop the rider off, once they've boarded.
+   * @return destination floor.
+   */
+  public FloorDestination dropOff() {
+    return new FloorDestination(destination);
+  }
+}
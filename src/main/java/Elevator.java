@@ -1,168 +1,647 @@
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a bassic Elevator that can go to hall calls, button presses,
  * and priority events (e.g. fire).  Implements a basic gossip protocol for
  * decentralized coordination with other Elevators, when other elevators are
  * known.
+ * <p>
+ * By default gossip happens synchronously, on each request and each move.  When
+ * gossiped with in the background (see {@link GossipScheduler}), requests and moves
+ * only read the latest merged view of the bank instead.
+ * <p>
+ * The view of the bank is an {@link ElevatorStateTable}, a slot per elevator id,
+ * so ids must be unique in a bank (and are best numbered from 0).  For
+ * deterministic runs, the random source for gossip and the clock for states and
+ * events can be set, see {@link ElevatorBank#setDeterministic(long, Clock)}.
  */
 public class Elevator {
 
+  private static final System.Logger LOG = System.getLogger(Elevator.class.getName());
+  // states gossiped over an immediate network, reused by each thread
+  private static final ThreadLocal<ElevatorStateTable> SNAPSHOT = new ThreadLocal<>();
+
+  /**
+   * Number of peers gossiped with per round, when gossiping synchronously.
+   */
+  public static final int GOSSIP_FAN_OUT = 2;
+
   private final int id;
   private final FloorLimits floorLimit;
+  private final int capacity;
+  private int load;
   private FloorDestination currentFloor;
   private Direction curDir;
 
-  protected final TreeSet<FloorDestination> up;
-  protected final TreeSet<FloorDestination> down;
-  protected final PriorityQueue<FloorDestination> priorityQueue;
+  protected TreeSet<FloorDestination> up;
+  protected TreeSet<FloorDestination> down;
+  protected final PriorityBuckets priorityQueue;
+
+  // up and down saved during a recall, null otherwise
+  private FloorDestination recallFloor;
+  private TreeSet<FloorDestination> recalledUp;
+  private TreeSet<FloorDestination> recalledDown;
+
+  // destination dispatch riders:  drop-offs of those waiting, by origin floor,
+  // number on board by drop-off floor, and number waiting or on board
+  private final Map<Integer, List<FloorDestination>> pickups;
+  private final Map<Integer, Integer> onBoard;
+  private int numRiders;
+  // origins of riders left waiting as we were full, queued again once there's room
+  private final Set<Integer> leftBehind;
+
+  // the whole bank, us included, shared with the rest of it
+  private List<Elevator> bank;
+  private FloorLimitsIndex<Elevator> bankIndex;
+  // latest known states of the bank, null until in one
+  private ElevatorStateTable view;
+  private volatile boolean backgroundGossip;
+  private volatile GossipNetwork network;
+  private volatile RandomGenerator random;
+  private volatile Clock clock;
 
-  protected final List<Elevator> peers;
-  protected final Map<Elevator, ElevatorState> elevatorStates;
+  /**
+   * Constructs an elevator, with no limit on passengers.
+   * @param id this elevators id (negative values not allowed).
+   * @param floorLimits the lower and upper floors this elevator can go to.
+   */
+  public Elevator(int id, FloorLimits floorLimits) {
+    this(id, floorLimits, Integer.MAX_VALUE);
+  }
 
   /**
    * Constructs an elevator.
    * @param id this elevators id (negative values not allowed).
    * @param floorLimits the lower and upper floors this elevator can go to.
+   * @param capacity max number of passengers on board.
+   * @throws IllegalArgumentException if capacity < 1.
    */
-  public Elevator(int id, FloorLimits floorLimits) {
+  public Elevator(int id, FloorLimits floorLimits, int capacity) {
+    if( capacity < 1 ) throw new IllegalArgumentException("Capacity must be at least one passenger");
     this.id = Math.abs(id);
     this.floorLimit = floorLimits;
-    this.currentFloor = new FloorDestination(0);
+    this.capacity = capacity;
+    // ground, or nearest floor to it this elevator serves
+    this.currentFloor = new FloorDestination(Math.min(Math.max(0, floorLimits.min()), floorLimits.max()));
     this.curDir = Direction.REST;
 
     this.up = new TreeSet<>();
     this.down = new TreeSet<>();
-    this.priorityQueue = new PriorityQueue<>();
-
-    this.peers = new ArrayList<>();
-    this.elevatorStates = new HashMap<>();
+    this.priorityQueue = new PriorityBuckets();
+    this.pickups = new HashMap<>();
+    this.onBoard = new HashMap<>();
+    this.leftBehind = new TreeSet<>();
+
+    this.bank = List.of();
+    this.bankIndex = new FloorLimitsIndex<>(bank, e -> e.floorLimit);
+    this.network = GossipNetwork.DIRECT;
+    this.clock = Clock.systemDefaultZone();
   }
 
   /**
-   * Sets the elevator bank this elevator is part of.
+   * Sets the elevator bank this elevator is part of.  Elevators in the bank may
+   * serve different floors (e.g. low-rise, high-rise, shuttle), only those that
+   * can serve a request are gossiped with and considered in bidding for it.
    * @param bank the bank of elevators this one belongs.
-   * @throws IllegalArgumentException if bank is empty or has different floor limits.
+   * @throws IllegalArgumentException if bank is empty, two of its elevators have
+   *                                  the same id, or its view would be too large
+   *                                  (see {@link ElevatorStateTable}).
    */
   public final void setElevatorBank(List<Elevator> bank) {
+    var members = List.copyOf(bank);
+    setElevatorBank(members, new FloorLimitsIndex<>(members, e -> e.floorLimit));
+  }
+
+  /**
+   * Sets the elevator bank, see {@link #setElevatorBank(List)}, sharing the
+   * bank and its index with the rest of the bank.
+   * @param bank the bank of elevators, including this one.
+   * @param index index of the bank by floor limits.
+   */
+  final synchronized void setElevatorBank(List<Elevator> bank, FloorLimitsIndex<Elevator> index) {
     if( bank.isEmpty() ) throw new IllegalArgumentException("Bank must have one member");
-    bank.forEach(e -> {
-      if( !e.floorLimit.equals(this.floorLimit) ){
-        throw new IllegalArgumentException("Elevator in bank has floor limits inconsistent with this");
-      }
-      if( !this.equals(e) ) peers.add(e);
-    });
+
+    int slots = 0;
+    int min = floorLimit.min();
+    int max = floorLimit.max();
+    for( var e : bank ) {
+      slots = Math.max(slots, e.id + 1);
+      min = Math.min(min, e.floorLimit.min());
+      max = Math.max(max, e.floorLimit.max());
+    }
+    // each has a slot by id in the view
+    boolean[] seen = new boolean[slots];
+    for( var e : bank ) {
+      if( seen[e.id] ) throw new IllegalArgumentException("Elevator ids must be unique in a bank, " + e.id + " isn't");
+      seen[e.id] = true;
+    }
+    this.view = new ElevatorStateTable(slots, new FloorLimits(min, max));
+    this.bank = bank;
+    this.bankIndex = index;
+  }
+
+  /**
+   * This elevator's id.
+   * @return id, not negative.
+   */
+  public final int getId() {
+    return id;
+  }
+
+  /**
+   * The floors this elevator can go to.
+   * @return floor limits of this elevator.
+   */
+  public final FloorLimits getFloorLimits() {
+    return floorLimit;
+  }
+
+  /**
+   * Max number of passengers on board.
+   * @return capacity, {@link Integer#MAX_VALUE} if unlimited.
+   */
+  public final int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Number of passengers on board.
+   * @return load.
+   */
+  public synchronized int getLoad() {
+    return load;
+  }
+
+  /**
+   * If no more passengers fit, in which case the elevator doesn't bid on
+   * (non-priority) hall calls.
+   * @return true if load is at capacity.
+   */
+  public synchronized boolean isFull() {
+    return load >= capacity;
+  }
+
+  /**
+   * Passengers board at the current stop, as many as fit.
+   * @param passengers number of passengers waiting to board.
+   * @return number boarded, the rest are left waiting.
+   * @throws IllegalArgumentException if passengers is negative.
+   */
+  public synchronized int board(int passengers) {
+    if( passengers < 0 ) throw new IllegalArgumentException("Passengers can't be negative");
+    int boarded = Math.min(passengers, capacity - load);
+    load += boarded;
+    return boarded;
+  }
+
+  /**
+   * Passengers alight at the current stop.
+   * @param passengers number of passengers getting off.
+   * @return number alighted, no more than were on board.
+   * @throws IllegalArgumentException if passengers is negative.
+   */
+  public synchronized int alight(int passengers) {
+    if( passengers < 0 ) throw new IllegalArgumentException("Passengers can't be negative");
+    int alighted = Math.min(passengers, load);
+    load -= alighted;
+    if( alighted > 0 ) requeueLeftBehind();
+    return alighted;
   }
 
   /**
    * Gets the ElevatorState for this Elevator at this moment.
    * @return ElevatorState representing current state
    */
-  protected ElevatorState getElevatorState() {
+  protected synchronized ElevatorState getElevatorState() {
     Set<FloorDestination> requests = new LinkedHashSet<>(priorityQueue.size() + up.size() + down.size());
-    requests.addAll(Set.copyOf(priorityQueue));
-    requests.addAll(Set.copyOf(up));
-    requests.addAll(Set.copyOf(down));
+    // in queue order, unlike Set.copyOf, so it's the same from run to run
+    requests.addAll(priorityQueue);
+    requests.addAll(up);
+    requests.addAll(down);
+    if( isRecalled() ) {
+      // still ours once the recall ends
+      requests.addAll(recalledUp);
+      requests.addAll(recalledDown);
+    }
     return new ElevatorState(id,
         currentFloor,
         curDir,
         priorityQueue.size(),
-        up.size() + down.size(),
+        workSize(),
         floorLimit.getNumFloors(),
-        requests);
+        requests,
+        load,
+        capacity,
+        isRecalled(),
+        LocalDateTime.now(clock));
   }
 
+  private int workSize() {
+    int workSize = up.size() + down.size();
+    if( isRecalled() ) workSize += recalledUp.size() + recalledDown.size();
+    return workSize;
+  }
+
+  /**
+   * Writes our state to our own slot of our view, as {@link #getElevatorState()}
+   * but field by field, as it's done on every gossip exchange and bid.
+   */
   private void updateSelfElevatorState() {
-    elevatorStates.put(this, getElevatorState());
+    if( null == view ) return;
+
+    view.put(id,
+        id,
+        currentFloor.getFloor(),
+        curDir,
+        priorityQueue.size(),
+        workSize(),
+        floorLimit.getNumFloors(),
+        load,
+        capacity,
+        isRecalled(),
+        LocalDateTime.now(clock));
+    for( var floor : priorityQueue ) view.addRequest(id, floor);
+    for( var floor : up ) view.addRequest(id, floor);
+    for( var floor : down ) view.addRequest(id, floor);
+    if( isRecalled() ) {
+      for( var floor : recalledUp ) view.addRequest(id, floor);
+      for( var floor : recalledDown ) view.addRequest(id, floor);
+    }
   }
 
   /**
-   * Add floor request.
+   * Add floor request.  While recalled, only priority requests are added.
    * @param floor floor request to add.
    * @return true if floor request added, false otherwise.
    */
-  public boolean addRequest(FloorDestination floor) {
-    if( floor.isOutsideFloorLimit(floorLimit) ) return false;
+  public synchronized boolean addRequest(FloorDestination floor) {
+    var decision = new RequestDecisionEvent();
+    decision.begin();
+
+    var rejection = rejection(floor);
+    if( null == rejection ) {
+      if( floor.hasPriority() ) priorityQueue.add(floor);
+      else enqueue(floor);
+    }
+
+    decision.emit(id, floor, rejection);
+    return null == rejection;
+  }
 
-    // determine bids and if we should accept
-    gossip();
-    if( peerHasRequest(floor) ) return false;
+  /**
+   * Determines if we should accept a floor request, bidding on it against the
+   * rest of the bank if need be.  Full elevators don't bid on hall calls.
+   * @return why the request should be rejected, or null if it should be accepted.
+   */
+  private String rejection(FloorDestination floor) {
+    if( floor.isOutsideFloorLimit(floorLimit) ) return "outside floor limits";
+    if( isRecalled() && !floor.hasPriority() ) return "recalled";
+    if( floor.hasDirection() && !floor.hasPriority() && isFull() ) return "full";
+
+    // determine bids and if we should accept, among those that can serve it (us included)
+    var eligible = bankIndex.eligible(floor);
+    if( backgroundGossip ) updateSelfElevatorState();
+    else gossip(eligible, GOSSIP_FAN_OUT);
+    if( peerHasRequest(eligible, floor) ) return "peer has request";
+
+    var bidRound = new BidRoundEvent();
+    bidRound.begin();
     double myBidCost = Elevator.calcBidCostRequest(floor, getElevatorState());
-    double lowestInBank = allBidCosts(floor)
-        .stream()
-        .min(Double::compareTo)
-        .orElse(myBidCost);
-    if( myBidCost > lowestInBank ) return false;
-
-    if (floor.hasPriority()) {
-      priorityQueue.add(floor);
-      return true;
+    int bidders = 0;
+    int lowestBidder = id;
+    double lowestBidCost = myBidCost;
+    for( var e : eligible ) {
+      if( !view.isKnown(e.id) ) continue;
+
+      bidders++;
+      double bidCost = view.bidCost(e.id, floor);
+      LOG.log(System.Logger.Level.DEBUG, () -> String.format("Elevator %d bids %f", e.id, bidCost));
+      if( 1 == bidders || bidCost < lowestBidCost ) {
+        lowestBidder = e.id;
+        lowestBidCost = bidCost;
+      }
     }
+    bidRound.emit(id, floor, bidders, lowestBidder);
+
+    if( myBidCost > lowestBidCost ) return "outbid";
+    return null;
+  }
+
+  /**
+   * Add a floor request assigned by the bank, without bidding on it, see
+   * {@link ElevatorBank#reassign(double)}.  While recalled, only priority requests
+   * are added.
+   * @param floor floor request to add.
+   * @return true if floor request added, false otherwise.
+   */
+  public synchronized boolean assignRequest(FloorDestination floor) {
+    if( floor.isOutsideFloorLimit(floorLimit) ) return false;
+    if( isRecalled() && !floor.hasPriority() ) return false;
+
+    if( floor.hasPriority() ) priorityQueue.add(floor);
+    else enqueue(floor);
+    return true;
+  }
+
+  /**
+   * Assigns a destination dispatch rider, without bidding, see
+   * {@link ElevatorBank#assign(DestinationRequest)}.  The origin is queued as
+   * a hall call, and the destination once the rider boards there.
+   * @param request the rider's origin and destination.
+   * @return true if assigned, false if either floor is outside floor limits,
+   *         or recalled.
+   */
+  public synchronized boolean assignRequest(DestinationRequest request) {
+    var pickup = request.pickup();
+    var dropOff = request.dropOff();
+    if( pickup.isOutsideFloorLimit(floorLimit) || dropOff.isOutsideFloorLimit(floorLimit) ) return false;
+    if( isRecalled() ) return false;
+
+    pickups.computeIfAbsent(request.origin(), origin -> new ArrayList<>()).add(dropOff);
+    numRiders++;
+    enqueue(pickup);
+    return true;
+  }
 
+  /**
+   * Determines if this elevator has a floor request, including those set aside
+   * by a recall, as {@link ElevatorState#hasRequest(FloorDestination)}.
+   * @param floor the floor request.
+   * @return true if requested.
+   */
+  public synchronized boolean hasRequest(FloorDestination floor) {
+    if( floor.hasPriority() ) return priorityQueue.contains(floor);
+    if( up.contains(floor) || down.contains(floor) ) return true;
+    return isRecalled() && (recalledUp.contains(floor) || recalledDown.contains(floor));
+  }
+
+  /**
+   * Removes a (non-priority) floor request, e.g. to reassign it to another
+   * elevator.  Requests set aside by a recall, and pickups of destination
+   * dispatch riders (who've been told which elevator to take), aren't removed.
+   * A rider on board still getting off at the floor keeps it as a stop.
+   * @param floor floor request to remove.
+   * @return true if removed, false if not requested.
+   */
+  public synchronized boolean removeRequest(FloorDestination floor) {
+    if( floor.hasPriority() || pickups.containsKey(floor.getFloor()) ) return false;
+    if( !up.remove(floor) && !down.remove(floor) ) return false;
+    // a drop-off at the same floor was merged into the request, so put it back
+    if( onBoard.containsKey(floor.getFloor()) ) enqueue(new FloorDestination(floor.getFloor()));
+    return true;
+  }
+
+  /**
+   * Floors this elevator will stop at for its current requests:  queued, set
+   * aside by a recall, and origins and drop-offs of destination dispatch riders
+   * yet to board.
+   * @return floor numbers.
+   */
+  public synchronized Set<Integer> plannedStops() {
+    Set<Integer> stops = new HashSet<>();
+    // from the queues, rather than building our state, as it's asked of every car per rider
+    priorityQueue.forEach(floor -> stops.add(floor.getFloor()));
+    up.forEach(floor -> stops.add(floor.getFloor()));
+    down.forEach(floor -> stops.add(floor.getFloor()));
+    if( isRecalled() ) {
+      recalledUp.forEach(floor -> stops.add(floor.getFloor()));
+      recalledDown.forEach(floor -> stops.add(floor.getFloor()));
+    }
+    stops.addAll(pickups.keySet());
+    pickups.values().forEach(dropOffs -> dropOffs.forEach(floor -> stops.add(floor.getFloor())));
+    return stops;
+  }
+
+  /**
+   * Number of destination dispatch riders assigned and not yet dropped off,
+   * waiting or on board.
+   * @return riders.
+   */
+  public synchronized int getNumRiders() {
+    return numRiders;
+  }
+
+  /**
+   * Adds a (non-priority) floor to the LOOK queues:  up if it's reachable in
+   * our current direction, down otherwise.
+   */
+  private void enqueue(FloorDestination floor) {
     if( currentFloor.isAboveInDirection(floor, curDir) ) up.add(floor);
     else down.add(floor);
+  }
 
+  /**
+   * Recalls this elevator to a floor (e.g. for fire or security), preempting
+   * its LOOK queues:  they're set aside until {@link #endRecall()}, and the
+   * recall floor is queued as a priority request.  Non-priority requests are
+   * refused while recalled.
+   * <p>
+   * Takes constant time, other than O(log levels) to queue the recall floor.
+   * Unless the elevator has priority requests of a higher priority, its next
+   * move is to the recall floor.
+   *
+   * @param recallFloor floor to recall to, must have a priority.
+   * @return true if recalled, false if already recalled or the floor is outside
+   *         floor limits.
+   * @throws IllegalArgumentException if recallFloor has no priority.
+   */
+  public synchronized boolean recall(FloorDestination recallFloor) {
+    if( !recallFloor.hasPriority() ) throw new IllegalArgumentException("Recall floor must have a priority");
+    if( isRecalled() || recallFloor.isOutsideFloorLimit(floorLimit) ) return false;
+
+    this.recallFloor = recallFloor;
+    recalledUp = up;
+    recalledDown = down;
+    up = new TreeSet<>();
+    down = new TreeSet<>();
+    priorityQueue.add(recallFloor);
     return true;
   }
 
-  private boolean peerHasRequest(FloorDestination request) {
-    for( var entry : elevatorStates.entrySet() ) {
-      if( entry.getKey().id == this.id ) continue;
+  /**
+   * Ends a recall, restoring the LOOK queues set aside by {@link #recall(FloorDestination)}
+   * relative to where the elevator is now.  If the recall floor hasn't been reached,
+   * it's no longer requested.
+   * @return true if recall ended, false if not recalled.
+   */
+  public synchronized boolean endRecall() {
+    if( !isRecalled() ) return false;
+
+    priorityQueue.remove(recallFloor);
+    var saved = new ArrayList<FloorDestination>(recalledUp.size() + recalledDown.size());
+    saved.addAll(recalledUp);
+    saved.addAll(recalledDown);
+    saved.forEach(this::enqueue);
+
+    recallFloor = null;
+    recalledUp = null;
+    recalledDown = null;
+    if( load < capacity ) requeueLeftBehind();
+    return true;
+  }
 
-      var peerState = entry.getValue();
-      if( peerState.hasRequest(request) ) return true;
+  /**
+   * If this elevator is recalled, see {@link #recall(FloorDestination)}.
+   * @return true if recalled, false otherwise.
+   */
+  public synchronized boolean isRecalled() {
+    return null != recallFloor;
+  }
+
+  private boolean peerHasRequest(List<Elevator> eligible, FloorDestination request) {
+    for( var e : eligible ) {
+      if( e != this && view.hasRequest(e.id, request) ) return true;
     }
     return false;
   }
 
-  private List<Double> allBidCosts(FloorDestination request) {
-    List<Double> bidCosts = new ArrayList<>(elevatorStates.size());
-    elevatorStates.forEach((elev, eState) -> {
-      var bidCost = Elevator.calcBidCostRequest(request, eState);
-      System.out.printf("Elevator %d bids %f%n", eState.id(), bidCost);
-      bidCosts.add(bidCost);
-    });
-    return bidCosts;
+  /**
+   * Sets whether this elevator is gossiped with in the background, in which case
+   * it won't gossip on requests and moves itself.
+   * @param backgroundGossip true if gossip is scheduled in the background.
+   */
+  protected final void setBackgroundGossip(boolean backgroundGossip) {
+    this.backgroundGossip = backgroundGossip;
+  }
+
+  /**
+   * Sets the network gossip with peers travels over, {@link GossipNetwork#DIRECT} by default.
+   * @param network the network to gossip over.
+   */
+  public final void setGossipNetwork(GossipNetwork network) {
+    this.network = network;
   }
 
-  private void gossip() {
-    if( peers.isEmpty() ) return;
+  /**
+   * Sets the random source for selecting peers to gossip with, e.g. seeded for
+   * deterministic runs, in which case gossip must not happen concurrently.
+   * @param random random source, or null for {@link ThreadLocalRandom} (the default).
+   */
+  public final void setRandom(RandomGenerator random) {
+    this.random = random;
+  }
 
-    Collections.shuffle(peers);
-    Set<Elevator> partners = new LinkedHashSet<>(2);
-    int numPartners = Math.min(2, peers.size());
-    for(int i = 0; i < numPartners; ++i) {
-      partners.add(peers.get(i));
+  /**
+   * Sets the clock states and events are timestamped with, gossip keeps the
+   * most recent state of each peer.
+   * @param clock the clock, {@link Clock#systemDefaultZone()} by default.
+   */
+  public final void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * The clock states and events are timestamped with.
+   * @return the clock.
+   */
+  public final Clock getClock() {
+    return clock;
+  }
+
+  /**
+   * Gossips with up to fanOut randomly selected peers, i.e. a round of
+   * anti-entropy.  Must not be called while holding this elevator's lock
+   * from another elevator.
+   * @param fanOut max number of peers to gossip with.
+   */
+  protected final void gossip(int fanOut) {
+    gossip(bank, fanOut);
+  }
+
+  /**
+   * Gossips with peers among candidates, which include us (e.g. the bank, or
+   * those eligible for a request).
+   */
+  private void gossip(List<Elevator> candidates, int fanOut) {
+    if( candidates.size() < 2 ) return;
+
+    // consecutive peers from a random start, O(fanOut) rather than shuffling all peers
+    int numPartners = Math.min(fanOut, candidates.size() - 1);
+    var random = null == this.random ? ThreadLocalRandom.current() : this.random;
+    int start;
+    do {
+      start = random.nextInt(candidates.size());
+    } while( candidates.get(start) == this );
+    List<Elevator> partners = new ArrayList<>(numPartners);
+    for( int i = start; partners.size() < numPartners; i = (i + 1) % candidates.size() ) {
+      var candidate = candidates.get(i);
+      if( candidate != this ) partners.add(candidate);
     }
 
-    System.out.printf("Gossip peers selected of %d, are: %s%n", id, partners);
+    LOG.log(System.Logger.Level.DEBUG, () -> String.format("Gossip peers selected of %d, are: %s",
+        id, partners.stream().map(peer -> peer.id).toList()));
     partners.forEach(peer -> {
-        peer.updateElevatorStates(getKnownElevatorStates());
-        updateElevatorStates(peer.getKnownElevatorStates());
+        network.send(this, peer, statesToSend(this));
+        network.send(peer, this, statesToSend(peer));
     });
   }
 
+  /**
+   * An elevator's known states to gossip:  a snapshot, which if the network
+   * delivers before send returns is copied into a table reused by the thread,
+   * rather than allocating one per message.
+   */
+  private ElevatorStateTable statesToSend(Elevator sender) {
+    if( !network.isImmediate() ) return sender.getKnownElevatorStates();
+    var states = sender.getKnownElevatorStates(SNAPSHOT.get());
+    SNAPSHOT.set(states);
+    return states;
+  }
+
   /**
    * Updates our knowledge of the other elevator states, IFF the other state is
    * more recent than our own (and not our own).
    * @param peerStates other states.
    */
-  protected void updateElevatorStates(Map<Elevator, ElevatorState> peerStates) {
-    for( var entry : peerStates.entrySet() ) {
-      var peerElev = entry.getKey();
-      var peerState = entry.getValue();
+  protected void updateElevatorStates(ElevatorStateTable peerStates) {
+    updateElevatorStates(null, peerStates);
+  }
 
-      if( !elevatorStates.containsKey(peerElev) ||
-           elevatorStates.get(peerElev).created().isBefore(peerState.created()) ) {
-        elevatorStates.put(peerElev, peerState);
-      }
-    }
+  /**
+   * Updates our knowledge of the other elevator states, IFF the other state is
+   * more recent than our own (and not our own).
+   * @param from the peer that sent the states, or null if unknown.
+   * @param peerStates other states, a view of the same bank.
+   * @throws IllegalStateException if not in a bank.
+   */
+  protected synchronized void updateElevatorStates(Elevator from, ElevatorStateTable peerStates) {
+    if( null == view ) throw new IllegalStateException("Not in a bank");
+    var exchange = new GossipExchangeEvent();
+    exchange.begin();
+
+    // our own slot is always the newest, so only peers' are merged
+    int merged = view.merge(peerStates);
     updateSelfElevatorState();
+
+    exchange.emit(id, null == from ? -1 : from.id, merged, peerStates);
+  }
+
+  /**
+   * A snapshot of our view of the bank, with our current state.
+   * @return known states, a slot per elevator id.
+   * @throws IllegalStateException if not in a bank.
+   */
+  protected ElevatorStateTable getKnownElevatorStates() {
+    return getKnownElevatorStates(null);
   }
 
-  protected Map<Elevator, ElevatorState> getKnownElevatorStates() {
+  /**
+   * A snapshot of our view of the bank, copied into a table if it has the same
+   * slots, see {@link ElevatorStateTable#copyFrom(ElevatorStateTable)}.
+   * @param reuse table to copy into, or null for a new one.
+   * @return known states, reuse or a new table.
+   * @throws IllegalStateException if not in a bank.
+   */
+  private synchronized ElevatorStateTable getKnownElevatorStates(ElevatorStateTable reuse) {
+    if( null == view ) throw new IllegalStateException("Not in a bank");
     updateSelfElevatorState();
-    return Map.copyOf(elevatorStates);
+    if( null != reuse && reuse.copyFrom(view) ) return reuse;
+    return view.copy();
   }
 
   /**
@@ -187,13 +666,44 @@ public class Elevator {
    */
   public final List<String> run() {
     List<String> floorRun = new ArrayList<>();
-    while( !priorityQueue.isEmpty() || !up.isEmpty()|| !down.isEmpty() ) {
-      gossip();
+    run(visit -> floorRun.add(visit.floor().floorAsString()));
+    return floorRun;
+  }
+
+  /**
+   * Simulates a run of the elevator using the current requests, handing each
+   * floor visit to the given consumer as it happens instead of collecting them.
+   * @param onVisit receives a {@link ElevatorEvent.Type#VISIT} event per floor visited,
+   *                in order of visit.
+   */
+  public final void run(Consumer<ElevatorEvent> onVisit) {
+    while( step(onVisit) ) { /* until out of work */ }
+  }
+
+  /**
+   * Simulates a single move of the elevator, if it has any requests:  gossips
+   * (unless gossiping in the background), then moves to the next floor.
+   * @param onVisit receives a {@link ElevatorEvent.Type#VISIT} event if the
+   *                elevator moved.
+   * @return true if the elevator had requests, false if it's out of work.
+   */
+  public final boolean step(Consumer<ElevatorEvent> onVisit) {
+    if( !hasWork() ) return false;
+
+    if( !backgroundGossip ) gossip(GOSSIP_FAN_OUT);
+    ElevatorEvent visit = null;
+    synchronized( this ) {
       var nextFloor = nextFloor();
-      nextFloor.ifPresent(floor -> floorRun.add(floor.floorAsString()));
+      if( nextFloor.isPresent() ) {
+        visit = new ElevatorEvent(ElevatorEvent.Type.VISIT, id, nextFloor.get(), curDir, LocalDateTime.now(clock));
+      }
     }
+    if( null != visit ) onVisit.accept(visit);
+    return true;
+  }
 
-    return floorRun;
+  private synchronized boolean hasWork() {
+    return !priorityQueue.isEmpty() || !up.isEmpty()|| !down.isEmpty();
   }
 
   /**
@@ -233,7 +743,9 @@ public class Elevator {
   }
 
   /**
-   * Goes to next floor.
+   * Goes to next floor, where destination dispatch riders get off, and those
+   * waiting there get on, as many as fit, and have their destinations queued.
+   * Those that don't fit are picked up once others have got off.
    * @param nextFloor floor to go to, if null will stay and set {@link Direction#REST}.
    * @throws IllegalArgumentException if nextFloor is outside floor limits.
    */
@@ -247,11 +759,47 @@ public class Elevator {
       throw new IllegalArgumentException("Next floor is outside floor limits");
     }
 
+    var visit = new FloorVisitEvent();
+    visit.begin();
+
     var floorsAway = currentFloor.floorsAway(nextFloor);
     if( 0 > floorsAway ) curDir = Direction.DOWN;
     else if ( 0 < floorsAway ) curDir = Direction.UP;
 
+    visit.emit(id, currentFloor, nextFloor, curDir);
     currentFloor = nextFloor;
+
+    // destination dispatch riders get off, and those waiting get on (unless recalled)
+    var alighting = onBoard.remove(nextFloor.getFloor());
+    if( null != alighting ) {
+      numRiders -= alighting;
+      load = Math.max(0, load - alighting);
+      requeueLeftBehind();
+    }
+    var waiting = isRecalled() ? null : pickups.get(nextFloor.getFloor());
+    if( null == waiting ) return;
+    var boarding = waiting.subList(0, Math.min(waiting.size(), capacity - load));
+    for( var dropOff : boarding ) {
+      onBoard.merge(dropOff.getFloor(), 1, Integer::sum);
+      enqueue(dropOff);
+    }
+    load += boarding.size();
+    boarding.clear();
+    if( waiting.isEmpty() ) pickups.remove(nextFloor.getFloor());
+    else leftBehind.add(nextFloor.getFloor());
+  }
+
+  /**
+   * Queues the pickups of riders left waiting as we were full, now there's room
+   * (unless recalled, then once it ends).
+   */
+  private void requeueLeftBehind() {
+    if( isRecalled() ) return;
+    for( int origin : leftBehind ) {
+      var waiting = pickups.get(origin);
+      if( null != waiting ) enqueue(new DestinationRequest(origin, waiting.getFirst().getFloor()).pickup());
+    }
+    leftBehind.clear();
   }
 
   /**
@@ -262,33 +810,69 @@ public class Elevator {
    * Elevators at the same floor will have low bid costs.
    * Elevators with lots of other work or priority requests will bid high.
    * Elevators in the same direction have lower bid costs.
+   * Elevators with more passengers on board bid higher, full elevators don't
+   * bid on (non-priority) hall calls (infinite cost).
+   * Recalled elevators don't bid on non-priority requests (infinite cost).
    *
    * @param request the floor request.
    * @return the bid cost.
    */
   protected static double calcBidCostRequest(FloorDestination request,
                                            ElevatorState elevatorState) {
-    var floorsAway = Math.abs(elevatorState.currentFloor().floorsAway(request));
-    double tieBreak = (elevatorState.id() % 1000) / 10000.0; // small nudge for banks
+    return calcBidCostRequest(request,
+        elevatorState.id(),
+        elevatorState.currentFloor().getFloor(),
+        elevatorState.currentDirection(),
+        elevatorState.prioritySize(),
+        elevatorState.workSize(),
+        elevatorState.floorCount(),
+        elevatorState.load(),
+        elevatorState.capacity(),
+        elevatorState.recalled());
+  }
+
+  /**
+   * Calculates a bid cost, as {@link #calcBidCostRequest(FloorDestination, ElevatorState)},
+   * from an elevator's state field by field, e.g. as read in place from an
+   * {@link ElevatorStateTable}.
+   */
+  static double calcBidCostRequest(FloorDestination request,
+                                   int id,
+                                   int currentFloor,
+                                   Direction currentDirection,
+                                   int prioritySize,
+                                   int workSize,
+                                   int floorCount,
+                                   int load,
+                                   int capacity,
+                                   boolean recalled) {
+    // recalled, only taking priority requests
+    if( recalled && !request.hasPriority() ) return Double.POSITIVE_INFINITY;
+    // full, would pass the caller by
+    if( load >= capacity && request.hasDirection() && !request.hasPriority() ) return Double.POSITIVE_INFINITY;
+
+    var floorsAway = Math.abs(request.getFloor() - currentFloor);
+    double tieBreak = (id % 1000) / 10000.0; // small nudge for banks
 
     // priority
-    if(elevatorState.prioritySize() > 0) {
+    if(prioritySize > 0) {
       return Double.MAX_VALUE
-          - ((Double.MAX_VALUE) / (tieBreak + elevatorState.prioritySize() + 1));
+          - ((Double.MAX_VALUE) / (tieBreak + prioritySize + 1));
     }
 
-    double loadMultiplier = 1 + ((double) elevatorState.workSize()
-        / Math.max(1.0, elevatorState.floorCount()));
+    double loadMultiplier = 1 + ((double) workSize
+        / Math.max(1.0, floorCount))
+        + (double) load / capacity;
 
     // rest or at floor
-    if( Direction.REST == elevatorState.currentDirection()
-        || elevatorState.currentFloor().hasFloorNumber(request) ) {
+    if( Direction.REST == currentDirection
+        || request.hasFloorNumber(currentFloor) ) {
       return tieBreak + floorsAway * loadMultiplier;
     }
 
     // direction
     double dirMultiplier =
-        request.hasSameDirection(elevatorState.currentDirection()) ? 1.1 : 2;
+        request.hasSameDirection(currentDirection) ? 1.1 : 2;
 
     return tieBreak + floorsAway * dirMultiplier * loadMultiplier;
   }
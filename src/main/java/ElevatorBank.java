@@ -1,5 +1,16 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
 
 /**
  * Basic elevator bank, allows for a number of elevators to be setup,
@@ -8,56 +19,454 @@ import java.util.List;
  * This is an oversimplified example, where in practice for decentralized
  * elevators they'd run independantly, and requests would likely be consumed
  * via a message bus.
+ * <p>
+ * Floor visits and request assignments are also published as {@link ElevatorEvent}s,
+ * see {@link #events()}.  Closing the bank completes that publisher.
+ * <p>
+ * Requests are assigned by bidding when added, and for good.  Optionally the bank
+ * also reassigns pending hall calls centrally, see {@link #reassign(double)}.
+ * Destination dispatch requests, where riders give their destination rather than
+ * a direction, are assigned centrally, see {@link #assign(DestinationRequest)}.
+ * <p>
+ * For reproducible runs, e.g. to compare changes on benchmark numbers alone, a
+ * bank can be made deterministic, see {@link #setDeterministic(long, Clock)}.
  */
-public class ElevatorBank {
+public class ElevatorBank implements AutoCloseable {
+
+  private static final System.Logger LOG = System.getLogger(ElevatorBank.class.getName());
+
   public final List<Elevator> bank;
 
+  /**
+   * Default bid cost of a destination dispatch rider adding a stop, see
+   * {@link #setDestinationDispatch(int, double)}.  Best on the up-peak of
+   * DestinationDispatchBenchmark.
+   */
+  public static final double DEFAULT_STOP_PENALTY = 40;
+
+  private final FloorLimitsIndex<Elevator> index;
+  private final SubmissionPublisher<ElevatorEvent> events;
+  private final AssignmentSolver solver;
+
+  private long reassignInterval;
+  private double reassignMinGain;
+  private long steps;
+
+  private int riderCapacity;
+  private double stopPenalty;
+
+  private volatile Clock clock;
+
   /**
    * Create a bank of elevators.
    * @param numElevators number of elevators in bank.
    * @param floorLimits floor limits for each elevator in bank.
    */
   public ElevatorBank(int numElevators, FloorLimits floorLimits) {
-    bank = new ArrayList<>(numElevators);
-    for(int i = 0; i < numElevators; ++i) {
-      var elev = new Elevator(i, floorLimits);
+    this(Collections.nCopies(numElevators, floorLimits));
+  }
+
+  /**
+   * Create a bank of elevators that carry at most capacity passengers each.
+   * @param numElevators number of elevators in bank.
+   * @param floorLimits floor limits for every elevator in bank.
+   * @param capacity max passengers on board each elevator.
+   * @throws IllegalArgumentException if capacity < 1.
+   */
+  public ElevatorBank(int numElevators, FloorLimits floorLimits, int capacity) {
+    this(Collections.nCopies(numElevators, floorLimits), capacity);
+  }
+
+  /**
+   * Create a bank of elevators that may serve different floors, e.g. low-rise,
+   * high-rise and shuttle cars.
+   * @param elevatorFloorLimits floor limits of each elevator in bank, elevator
+   *                            ids are by position.
+   */
+  public ElevatorBank(List<FloorLimits> elevatorFloorLimits) {
+    this(elevatorFloorLimits, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Create a bank of elevators that may serve different floors, and carry at
+   * most capacity passengers each.
+   * @param elevatorFloorLimits floor limits of each elevator in bank, elevator
+   *                            ids are by position.
+   * @param capacity max passengers on board each elevator.
+   * @throws IllegalArgumentException if capacity < 1.
+   */
+  public ElevatorBank(List<FloorLimits> elevatorFloorLimits, int capacity) {
+    bank = new ArrayList<>(elevatorFloorLimits.size());
+    for(int i = 0; i < elevatorFloorLimits.size(); ++i) {
+      var elev = new Elevator(i, elevatorFloorLimits.get(i), capacity);
       bank.add(elev);
     }
 
+    // shared by the elevators, so each one's heap doesn't grow with the bank
     var immutableBank = List.copyOf(bank);
-    bank.forEach(e -> e.setElevatorBank(immutableBank));
+    index = new FloorLimitsIndex<>(immutableBank, Elevator::getFloorLimits);
+    bank.forEach(e -> e.setElevatorBank(immutableBank, index));
+
+    events = new SubmissionPublisher<>();
+    solver = new AssignmentSolver();
+    riderCapacity = Integer.MAX_VALUE;
+    stopPenalty = DEFAULT_STOP_PENALTY;
+    clock = Clock.systemDefaultZone();
+  }
+
+  /**
+   * Publisher of the bank's floor visit and assignment events.  Subscribers
+   * receive events only as fast as they request them:  once a subscriber's
+   * buffer ({@link Flow#defaultBufferSize()}) is full, the bank blocks until
+   * it requests more.  With no subscribers, events are dropped.
+   * @return the event publisher for this bank.
+   */
+  public Flow.Publisher<ElevatorEvent> events() {
+    return events;
   }
 
   /**
-   * Add a request to the bank, elevators will bid, and one or more
-   * should accept the request.
+   * Sets the network the bank's elevators gossip over, e.g. to inject faults.
+   * @param network network to gossip over.
+   */
+  public void setGossipNetwork(GossipNetwork network) {
+    bank.forEach(e -> e.setGossipNetwork(network));
+  }
+
+  /**
+   * Makes the bank deterministic:  the same seed, clock readings and workload
+   * always give the same assignments and routes.  Each elevator selects peers
+   * to gossip with from its own random source, split from the seed in order
+   * of id, and timestamps states and events with the clock.  Views of the bank,
+   * and requests in states, are kept in a stable order regardless.
+   * <p>
+   * Only holds while the bank is run from a single thread, with synchronous
+   * gossip (not {@link #startGossip(Duration, int)}), and over a deterministic
+   * network if a faulty one.
+   *
+   * @param seed random seed.
+   * @param clock clock to timestamp with, e.g. a {@link SteppingClock}.
+   */
+  public void setDeterministic(long seed, Clock clock) {
+    var random = new SplittableRandom(seed);
+    for( Elevator e : bank ) {
+      e.setRandom(random.split());
+      e.setClock(clock);
+    }
+    this.clock = clock;
+  }
+
+  /**
+   * Makes the bank deterministic, see {@link #setDeterministic(long, Clock)},
+   * with a {@link SteppingClock} from a microsecond after the epoch, a
+   * microsecond per reading.
+   * @param seed random seed.
+   */
+  public void setDeterministic(long seed) {
+    var step = Duration.ofNanos(1_000);
+    setDeterministic(seed, new SteppingClock(Instant.EPOCH.plus(step), step, ZoneOffset.UTC));
+  }
+
+  /**
+   * Starts the bank's elevators gossiping in the background, instead of on
+   * every request and move.
+   * @param interval delay between gossip rounds.
+   * @param fanOut max number of peers each elevator gossips with per round.
+   * @return the started scheduler, close it to return to synchronous gossip.
+   */
+  public GossipScheduler startGossip(Duration interval, int fanOut) {
+    return new GossipScheduler(bank, interval, fanOut).start();
+  }
+
+  /**
+   * Add a request to the bank, elevators that can serve the floor will bid,
+   * and one or more should accept the request.
    * @param request the requested floor.
    * @return number of elevators that accepted.  Will be 0 if outside floor
-   * limits of bank.
+   * limits of every elevator in bank.
    */
   public int addRequest(FloorDestination request) {
-    System.out.println("----------");
-    System.out.printf("Elevators bidding on: %s%n", request);
-    System.out.println("----------");
+    LOG.log(System.Logger.Level.DEBUG, "Elevators bidding on: {0}", request);
     int accepted = 0;
-    for( Elevator e : bank) {
+    for( Elevator e : index.eligible(request) ) {
       if( e.addRequest(request) ) {
         accepted++;
-        System.out.println("elevator accepted request: " + e);
+        LOG.log(System.Logger.Level.DEBUG, "elevator accepted request: {0}", e);
+        publishAssignment(e, request);
       }
     }
 
-    System.out.printf("%d elevators accepted request: %s%n", accepted, request);
+    LOG.log(System.Logger.Level.DEBUG, "{0} elevators accepted request: {1}", accepted, request);
     return accepted;
   }
 
+  /**
+   * Determines if an elevator in the bank already has a request, e.g. a hall
+   * call someone else has made, that every elevator rejects as a peer has it.
+   * @param request the requested floor.
+   * @return true if an elevator that can serve the floor has the request.
+   */
+  public boolean hasRequest(FloorDestination request) {
+    for( Elevator e : index.eligible(request) ) {
+      if( e.hasRequest(request) ) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Recalls every elevator that can serve the recall floor (e.g. for fire or
+   * security) in a single pass, without bidding:  each elevator's LOOK queues are
+   * set aside and the recall floor queued, see {@link Elevator#recall(FloorDestination)}.
+   * <p>
+   * Every elevator is redirected by the time this returns, in O(elevators) time:
+   * unless an elevator has priority requests of a higher priority, its next move
+   * is to the recall floor.  Takes about 17us for 50 busy elevators on a single
+   * slow core, and the bank is cleared on the next step (see RecallBenchmark).
+   *
+   * @param recallFloor floor to recall to, must have a priority.
+   * @return number of elevators recalled.
+   * @throws IllegalArgumentException if recallFloor has no priority.
+   */
+  public int recall(FloorDestination recallFloor) {
+    if( !recallFloor.hasPriority() ) throw new IllegalArgumentException("Recall floor must have a priority");
+
+    int recalled = 0;
+    for( Elevator e : index.eligible(recallFloor) ) {
+      if( e.recall(recallFloor) ) {
+        recalled++;
+        publishAssignment(e, recallFloor);
+      }
+    }
+
+    LOG.log(System.Logger.Level.DEBUG, "{0} elevators recalled to: {1}", recalled, recallFloor);
+    return recalled;
+  }
+
+  /**
+   * Ends a recall, elevators resume the requests they had before it.
+   * @return number of elevators no longer recalled.
+   */
+  public int endRecall() {
+    int ended = 0;
+    for( Elevator e : bank ) {
+      if( e.endRecall() ) ended++;
+    }
+    return ended;
+  }
+
+  /**
+   * Re-solves the assignment of every pending hall call across the bank as a
+   * minimum-cost assignment (see {@link AssignmentSolver}), on the elevators'
+   * bid costs ({@link Elevator#calcBidCostRequest(FloorDestination, ElevatorState)}).
+   * To spread calls out, each elevator takes at most its share of them, rounded up.
+   * <p>
+   * A call is only moved when its bid cost drops by more than minGain, so calls
+   * don't bounce between elevators of similar cost.  Button presses, destination
+   * dispatch pickups, requests of recalled elevators, and priority requests
+   * aren't moved, and elevators with priority requests aren't assigned any.
+   * Must not be called concurrently with other requests to the bank.
+   * <p>
+   * Takes about 4ms for 50 elevators and 500 pending calls on a single slow
+   * core (see AssignmentBenchmark), over a target of 1ms.
+   *
+   * @param minGain bid cost a move must save.
+   * @return number of calls moved.
+   */
+  public int reassign(double minGain) {
+    List<ElevatorState> states = new ArrayList<>(bank.size());
+    boolean[] assignable = new boolean[bank.size()];
+    int numAssignable = 0;
+    // pending calls, and the elevators holding them (more than one if double-served)
+    Map<FloorDestination, List<Integer>> holders = new LinkedHashMap<>();
+    for( int car = 0; car < bank.size(); ++car ) {
+      var elevator = bank.get(car);
+      boolean recalled = elevator.isRecalled();
+      var state = elevator.getElevatorState();
+      states.add(state);
+      assignable[car] = !recalled && 0 == state.prioritySize();
+      if( assignable[car] ) numAssignable++;
+      if( recalled ) continue;
+
+      for( var request : state.requests() ) {
+        if( request.hasPriority() || !request.hasDirection() ) continue;
+        holders.computeIfAbsent(request, r -> new ArrayList<>(1)).add(car);
+      }
+    }
+    if( holders.isEmpty() || 0 == numAssignable ) return 0;
+
+    List<FloorDestination> calls = new ArrayList<>(holders.keySet());
+    double[][] costs = new double[calls.size()][bank.size()];
+    for( int call = 0; call < calls.size(); ++call ) {
+      var request = calls.get(call);
+      for( int car = 0; car < bank.size(); ++car ) {
+        boolean canServe = assignable[car] && !request.isOutsideFloorLimit(bank.get(car).getFloorLimits());
+        costs[call][car] = canServe
+            ? Elevator.calcBidCostRequest(request, states.get(car))
+            : Double.POSITIVE_INFINITY;
+      }
+    }
+    int share = (calls.size() + numAssignable - 1) / numAssignable;
+    int[] capacity = new int[bank.size()];
+    for( int car = 0; car < bank.size(); ++car ) capacity[car] = assignable[car] ? share : 0;
+
+    int[] assignment = solver.solve(costs, capacity);
+
+    int moved = 0;
+    for( int call = 0; call < calls.size(); ++call ) {
+      int car = assignment[call];
+      if( -1 == car ) continue;
+
+      var request = calls.get(call);
+      double current = Double.POSITIVE_INFINITY;
+      for( int holder : holders.get(request) ) current = Math.min(current, costs[call][holder]);
+      if( !(current - costs[call][car] > minGain) ) continue;
+
+      // destination dispatch pickups aren't given up
+      boolean removed = false;
+      for( int holder : holders.get(request) ) removed |= bank.get(holder).removeRequest(request);
+      if( !removed ) continue;
+      bank.get(car).assignRequest(request);
+      publishAssignment(bank.get(car), request);
+      moved++;
+    }
+
+    LOG.log(System.Logger.Level.DEBUG, "{0} of {1} calls reassigned", moved, calls.size());
+    return moved;
+  }
+
+  /**
+   * Sets the bank to reassign pending hall calls centrally every interval steps,
+   * see {@link #reassign(double)} and {@link #step()}.
+   * @param interval steps between reassignments, 0 to turn off.
+   * @param minGain bid cost a move must save.
+   * @throws IllegalArgumentException if interval is negative.
+   */
+  public void setCentralAssignment(long interval, double minGain) {
+    if( interval < 0 ) throw new IllegalArgumentException("Interval can't be negative");
+    this.reassignInterval = interval;
+    this.reassignMinGain = minGain;
+  }
+
+  /**
+   * Assigns a destination dispatch rider to an elevator, without bidding:  as
+   * the bank knows where riders are going, it groups those with the same stops
+   * into the same elevator, so each trip makes fewer stops.  The cost of each
+   * elevator is its bid cost for the pickup, plus a penalty per stop (origin or
+   * destination) it doesn't already plan to make.
+   * <p>
+   * Elevators that can't serve both floors, are recalled, have priority
+   * requests, or already have as many riders as they carry (or the rider
+   * capacity) aren't assigned riders.
+   *
+   * @param request the rider's origin and destination.
+   * @return id of the elevator assigned, for the rider to take.  Or -1 if none
+   *         can take the rider now.
+   */
+  public int assign(DestinationRequest request) {
+    var pickup = request.pickup();
+    Elevator best = null;
+    double bestCost = Double.POSITIVE_INFINITY;
+    for( Elevator e : index.eligible(pickup) ) {
+      if( request.dropOff().isOutsideFloorLimit(e.getFloorLimits()) || e.isRecalled() ) continue;
+      if( e.getNumRiders() >= Math.min(riderCapacity, e.getCapacity()) ) continue;
+      var state = e.getElevatorState();
+      if( state.prioritySize() > 0 ) continue;
+
+      var stops = e.plannedStops();
+      int newStops = (stops.contains(request.origin()) ? 0 : 1) + (stops.contains(request.destination()) ? 0 : 1);
+      double cost = Elevator.calcBidCostRequest(pickup, state) + newStops * stopPenalty;
+      if( cost < bestCost ) {
+        best = e;
+        bestCost = cost;
+      }
+    }
+    if( null == best || !best.assignRequest(request) ) return -1;
+
+    LOG.log(System.Logger.Level.DEBUG, "elevator {0} assigned rider: {1}", best.getId(), request);
+    publishAssignment(best, pickup);
+    return best.getId();
+  }
+
+  /**
+   * Configures destination dispatch, see {@link #assign(DestinationRequest)}.
+   * @param riderCapacity max riders assigned to an elevator at once, waiting or
+   *                      on board, if less than the elevator's capacity.
+   * @param stopPenalty bid cost of a rider adding a stop, higher groups riders
+   *                    into fewer stops at the cost of waiting longer.
+   * @throws IllegalArgumentException if riderCapacity isn't positive, or
+   *                                  stopPenalty is negative.
+   */
+  public void setDestinationDispatch(int riderCapacity, double stopPenalty) {
+    if( riderCapacity < 1 ) throw new IllegalArgumentException("Rider capacity must be positive");
+    if( stopPenalty < 0 ) throw new IllegalArgumentException("Stop penalty can't be negative");
+    this.riderCapacity = riderCapacity;
+    this.stopPenalty = stopPenalty;
+  }
+
   /**
    * Runs the bank - i.e. each elevator will process its work until done.
    * @return a list of ordered floor visits per elevator.
    */
   public List<List<String>> runBank() {
     return bank.stream()
-        .map(Elevator::run)
+        .map(e -> {
+          List<String> floorRun = new ArrayList<>();
+          e.run(visit -> {
+            floorRun.add(visit.floor().floorAsString());
+            publish(visit);
+          });
+          return floorRun;
+        })
         .toList();
   }
+
+  /**
+   * Steps the bank - i.e. each elevator with requests moves to its next floor.
+   * Floor visits are only published to {@link #events()}.  With central
+   * assignment on (see {@link #setCentralAssignment(long, double)}), pending hall
+   * calls are first reassigned every interval steps.
+   * @return number of elevators that had requests.  0 when the bank is done.
+   */
+  public int step() {
+    if( reassignInterval > 0 && 0 == ++steps % reassignInterval ) reassign(reassignMinGain);
+
+    int working = 0;
+    for( Elevator e : bank ) {
+      if( e.step(this::publish) ) working++;
+    }
+    return working;
+  }
+
+  /**
+   * Runs the bank like {@link #runBank()}, but without collecting floor visits:
+   * they're only published to {@link #events()}, so memory use doesn't grow
+   * with the length of the run.
+   */
+  public void streamBank() {
+    bank.forEach(e -> e.run(this::publish));
+  }
+
+  private void publishAssignment(Elevator elevator, FloorDestination request) {
+    if( !events.hasSubscribers() ) return;
+
+    var state = elevator.getElevatorState();
+    events.submit(new ElevatorEvent(ElevatorEvent.Type.ASSIGNMENT,
+        state.id(),
+        request,
+        state.currentDirection(),
+        LocalDateTime.now(clock)));
+  }
+
+  private void publish(ElevatorEvent event) {
+    if( events.hasSubscribers() ) events.submit(event);
+  }
+
+  /**
+   * Completes the event publisher, subscribers will receive any remaining
+   * events followed by onComplete.
+   */
+  @Override
+  public void close() {
+    events.close();
+  }
 }
@@ -0,0 +1,38 @@
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened to an elevator in a bank while it was running, for
+ * consumers that want to follow along incrementally (e.g. dashboards, recorders).
+ * @param type what happened, see {@link Type}.
+ * @param elevatorId id of the elevator (car) the event is about.
+ * @param floor the floor visited, or the request assigned.
+ * @param direction direction of the elevator when the event happened.
+ * @param created when the event happened, now if null.
+ */
+public record ElevatorEvent(Type type,
+                            int elevatorId,
+                            FloorDestination floor,
+                            Direction direction,
+                            LocalDateTime created) {
+
+  /**
+   * Kinds of elevator events.
+   */
+  public enum Type {
+    /** Elevator moved to, and stopped at, a floor. */
+    VISIT,
+    /** Elevator accepted a request in bidding. */
+    ASSIGNMENT;
+  }
+
+  public ElevatorEvent {
+    if( null == created ) created = LocalDateTime.now();
+  }
+
+  public ElevatorEvent(Type type,
+                       int elevatorId,
+                       FloorDestination floor,
+                       Direction direction) {
+    this(type, elevatorId, floor, direction, null);
+  }
+}
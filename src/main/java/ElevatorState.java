@@ -9,11 +9,36 @@ public record ElevatorState(int id,
                             int workSize,
                             int floorCount,
                             Set<FloorDestination> requests,
+                            int load,
+                            int capacity,
+                            boolean recalled,
                             LocalDateTime created) {
 
 
   public ElevatorState {
-    created = LocalDateTime.now();
+    if( null == created ) created = LocalDateTime.now();
+  }
+
+  public ElevatorState(int id,
+                       FloorDestination currentFloor,
+                       Direction currentDirection,
+                       int prioritySize,
+                       int workSize,
+                       int floorCount,
+                       Set<FloorDestination> requests,
+                       int load,
+                       int capacity) {
+    this(id,
+        currentFloor,
+        currentDirection,
+        prioritySize,
+        workSize,
+        floorCount,
+        requests,
+        load,
+        capacity,
+        false,
+        null);
   }
 
   public ElevatorState(int id,
@@ -30,6 +55,9 @@ public record ElevatorState(int id,
         workSize,
         floorCount,
         requests,
+        0,
+        Integer.MAX_VALUE,
+        false,
         null);
   }
 
@@ -46,10 +74,21 @@ public record ElevatorState(int id,
         workSize,
         floorCount,
         new LinkedHashSet<>(),
+        0,
+        Integer.MAX_VALUE,
+        false,
         null);
   }
 
   public boolean hasRequest(FloorDestination request) {
     return requests.contains(request);
   }
+
+  /**
+   * If no more passengers fit in the elevator.
+   * @return true if load is at capacity.
+   */
+  public boolean isFull() {
+    return load >= capacity;
+  }
 }
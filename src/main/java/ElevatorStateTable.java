@@ -0,0 +1,405 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+
+/**
+ * A compact, off-heap table of elevator states:  each Elevator's view of its
+ * bank, so that very large simulations (e.g. what-if runs of many sites) don't
+ * need a map of {@link ElevatorState}s per car, costing heap and GC time.
+ * <p>
+ * Each car has a fixed-width slot in a direct buffer:  its version, id, floor,
+ * direction, priority and work sizes, load and capacity, whether it's recalled,
+ * its first few priority requests, and a bitmap of the (non-priority) floors it
+ * has requests for.  Bidding ({@link #bidCost(int, FloorDestination)}) and gossip
+ * ({@link #merge(ElevatorStateTable)}) read and write slots in place, so heap
+ * use doesn't grow with the number of cars.
+ * <p>
+ * Only the first {@link #MAX_PRIORITY_REQUESTS} priority requests of a car are
+ * kept, the rest are only counted.  Not thread-safe.
+ */
+public class ElevatorStateTable {
+
+  private static final int VERSION = 0;
+  private static final int ID = 8;
+  private static final int FLOOR = 12;
+  private static final int PRIORITY_SIZE = 16;
+  private static final int WORK_SIZE = 20;
+  private static final int FLOOR_COUNT = 24;
+  private static final int LOAD = 28;
+  private static final int CAPACITY = 32;
+  private static final int DIRECTION = 36;
+  private static final int RECALLED = 37;
+  // 0 until the slot's written, as any version is valid
+  private static final int WRITTEN = 38;
+  // floor and priority of each, priority 0 if none
+  private static final int PRIORITY_REQUESTS = 40;
+  private static final int REQUESTS = 72;
+
+  /**
+   * Number of priority requests kept per car.
+   */
+  public static final int MAX_PRIORITY_REQUESTS = 4;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+  private final int cars;
+  private final FloorLimits floors;
+  private final int slotSize;
+  private final ByteBuffer slots;
+
+  /**
+   * Creates a table, every slot empty (unknown) until written.
+   * @param cars number of slots, one per car.
+   * @param floors floors requests may be for.
+   * @throws IllegalArgumentException if cars is negative, or the table would be
+   *                                  over 2GB.
+   */
+  public ElevatorStateTable(int cars, FloorLimits floors) {
+    if( cars < 0 ) throw new IllegalArgumentException("Number of cars can't be negative");
+    long words = ((long) floors.max() - floors.min() + 64) / 64;
+    long slotSize = REQUESTS + words * Long.BYTES;
+    if( slotSize * Math.max(1, cars) > Integer.MAX_VALUE ) throw new IllegalArgumentException("Table too large");
+
+    this.cars = cars;
+    this.floors = floors;
+    this.slotSize = (int) slotSize;
+    this.slots = ByteBuffer.allocateDirect(this.slotSize * cars).order(ByteOrder.nativeOrder());
+  }
+
+  private ElevatorStateTable(ElevatorStateTable table, ByteBuffer slots) {
+    this.cars = table.cars;
+    this.floors = table.floors;
+    this.slotSize = table.slotSize;
+    this.slots = slots.order(ByteOrder.nativeOrder());
+    this.slots.put(0, table.slots, 0, table.slots.capacity());
+  }
+
+  /**
+   * A snapshot of the table, e.g. to send as a gossip message.  As snapshots
+   * are short-lived, they're kept on heap.
+   * @return a copy of the table.
+   */
+  public ElevatorStateTable copy() {
+    return new ElevatorStateTable(this, ByteBuffer.allocate(slots.capacity()));
+  }
+
+  /**
+   * Copies every slot of another table with the same cars and floors over ours,
+   * e.g. to reuse a snapshot rather than {@link #copy()} a new one.
+   * @param other the other table.
+   * @return true if copied, false if the tables' cars or floors differ.
+   */
+  public boolean copyFrom(ElevatorStateTable other) {
+    if( other.cars != cars || !other.floors.equals(floors) ) return false;
+    slots.put(0, other.slots, 0, other.slots.capacity());
+    return true;
+  }
+
+  /**
+   * Number of slots.
+   * @return cars.
+   */
+  public int size() {
+    return cars;
+  }
+
+  /**
+   * Number of cars whose state is known, i.e. slots written.
+   * @return known cars.
+   */
+  public int known() {
+    int known = 0;
+    for( int at = 0; at < slotSize * cars; at += slotSize ) {
+      if( 0 != slots.get(at + WRITTEN) ) known++;
+    }
+    return known;
+  }
+
+  /**
+   * Memory used by the table, off-heap unless a {@link #copy()}.
+   * @return bytes.
+   */
+  public long byteSize() {
+    return slots.capacity();
+  }
+
+  /**
+   * Writes a car's state to its slot, if newer than the one there, as gossip
+   * merges states.
+   * @param slot the car's slot.
+   * @param state the car's state.
+   * @return true if written, false if the slot has the same or a newer state.
+   * @throws IndexOutOfBoundsException if there's no such slot.
+   * @throws IllegalArgumentException if a request is outside the table's floors.
+   */
+  public boolean merge(int slot, ElevatorState state) {
+    int at = offset(slot);
+    if( 0 != slots.get(at + WRITTEN) && version(state.created()) <= slots.getLong(at + VERSION) ) return false;
+    write(at, state);
+    return true;
+  }
+
+  /**
+   * Writes a car's state to its slot, whatever the version there, e.g. a car's
+   * own state to its own view.
+   * @param slot the car's slot.
+   * @param state the car's state.
+   * @throws IndexOutOfBoundsException if there's no such slot.
+   * @throws IllegalArgumentException if a request is outside the table's floors.
+   */
+  public void put(int slot, ElevatorState state) {
+    write(offset(slot), state);
+  }
+
+  /**
+   * Writes a car's state to its slot, whatever the version there, field by field
+   * without its requests, e.g. a car's own state to its own view without building
+   * an {@link ElevatorState}.  Requests are then added with
+   * {@link #addRequest(int, FloorDestination)}.
+   * @throws IndexOutOfBoundsException if there's no such slot.
+   */
+  void put(int slot,
+           int id,
+           int floor,
+           Direction direction,
+           int prioritySize,
+           int workSize,
+           int floorCount,
+           int load,
+           int capacity,
+           boolean recalled,
+           LocalDateTime created) {
+    writeFields(offset(slot), id, floor, direction, prioritySize, workSize, floorCount, load, capacity, recalled, version(created));
+  }
+
+  /**
+   * Adds a request to the state in a slot, see {@link #put(int, int, int, Direction, int, int, int, int, int, boolean, LocalDateTime)}.
+   * @param slot the car's slot.
+   * @param request the floor request.
+   * @throws IndexOutOfBoundsException if there's no such slot.
+   * @throws IllegalArgumentException if the request is outside the table's floors.
+   */
+  void addRequest(int slot, FloorDestination request) {
+    if( request.isOutsideFloorLimit(floors) ) throw new IllegalArgumentException("Request is outside floor limits");
+    writeRequest(offset(slot), request);
+  }
+
+  private void write(int at, ElevatorState state) {
+    for( var request : state.requests() ) {
+      if( request.isOutsideFloorLimit(floors) ) throw new IllegalArgumentException("Request is outside floor limits");
+    }
+
+    writeFields(at,
+        state.id(),
+        state.currentFloor().getFloor(),
+        state.currentDirection(),
+        state.prioritySize(),
+        state.workSize(),
+        state.floorCount(),
+        state.load(),
+        state.capacity(),
+        state.recalled(),
+        version(state.created()));
+    for( var request : state.requests() ) writeRequest(at, request);
+  }
+
+  private void writeFields(int at,
+                           int id,
+                           int floor,
+                           Direction direction,
+                           int prioritySize,
+                           int workSize,
+                           int floorCount,
+                           int load,
+                           int capacity,
+                           boolean recalled,
+                           long version) {
+    slots.putLong(at + VERSION, version);
+    slots.putInt(at + ID, id);
+    slots.putInt(at + FLOOR, floor);
+    slots.putInt(at + PRIORITY_SIZE, prioritySize);
+    slots.putInt(at + WORK_SIZE, workSize);
+    slots.putInt(at + FLOOR_COUNT, floorCount);
+    slots.putInt(at + LOAD, load);
+    slots.putInt(at + CAPACITY, capacity);
+    slots.put(at + DIRECTION, (byte) direction.ordinal());
+    slots.put(at + RECALLED, (byte) (recalled ? 1 : 0));
+    slots.put(at + WRITTEN, (byte) 1);
+    for( int word = at + PRIORITY_REQUESTS; word < at + slotSize; word += Long.BYTES ) slots.putLong(word, 0);
+  }
+
+  private void writeRequest(int at, FloorDestination request) {
+    if( request.hasPriority() ) {
+      for( int priorityAt = at + PRIORITY_REQUESTS; priorityAt < at + REQUESTS; priorityAt += 2 * Integer.BYTES ) {
+        int priority = slots.getInt(priorityAt + Integer.BYTES);
+        if( priority == request.getPriority() && slots.getInt(priorityAt) == request.getFloor() ) return;
+        if( 0 != priority ) continue;
+        slots.putInt(priorityAt, request.getFloor());
+        slots.putInt(priorityAt + Integer.BYTES, request.getPriority());
+        return;
+      }
+      return; // only counted
+    }
+    int bit = request.getFloor() - floors.min();
+    int word = at + REQUESTS + (bit >>> 6) * Long.BYTES;
+    slots.putLong(word, slots.getLong(word) | (1L << bit));
+  }
+
+  /**
+   * Merges the slots of another table with the same cars and floors, e.g. a
+   * peer's view in gossip:  each slot of the other that's newer is copied over.
+   * @param other the other table.
+   * @return number of slots merged.
+   * @throws IllegalArgumentException if the other table has different cars or floors.
+   */
+  public int merge(ElevatorStateTable other) {
+    if( other.cars != cars || !other.floors.equals(floors) ) throw new IllegalArgumentException("Tables must have the same cars and floors");
+
+    int merged = 0;
+    for( int at = 0; at < slotSize * cars; at += slotSize ) {
+      if( 0 == other.slots.get(at + WRITTEN) ) continue;
+      if( 0 == slots.get(at + WRITTEN) || other.slots.getLong(at + VERSION) > slots.getLong(at + VERSION) ) {
+        slots.put(at, other.slots, at, slotSize);
+        merged++;
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * If a slot's been written, i.e. the car's state is known.
+   * @param slot the car's slot.
+   * @return true if written.
+   */
+  public boolean isKnown(int slot) {
+    return 0 != slots.get(offset(slot) + WRITTEN);
+  }
+
+  /**
+   * Version of a slot's state, from when the state was created.
+   * @param slot the car's slot.
+   * @return version, 0 if never written (but 0 is also a valid version, see
+   *         {@link #isKnown(int)}).
+   */
+  public long version(int slot) {
+    return slots.getLong(offset(slot) + VERSION);
+  }
+
+  /**
+   * Id of the car in a slot.
+   * @param slot the car's slot.
+   * @return id.
+   */
+  public int id(int slot) {
+    return slots.getInt(offset(slot) + ID);
+  }
+
+  /**
+   * Floor the car in a slot is at.
+   * @param slot the car's slot.
+   * @return floor number.
+   */
+  public int floor(int slot) {
+    return slots.getInt(offset(slot) + FLOOR);
+  }
+
+  /**
+   * Direction the car in a slot is going.
+   * @param slot the car's slot.
+   * @return direction.
+   */
+  public Direction direction(int slot) {
+    return DIRECTIONS[slots.get(offset(slot) + DIRECTION)];
+  }
+
+  /**
+   * If the car in a slot is recalled, see {@link Elevator#recall(FloorDestination)}.
+   * @param slot the car's slot.
+   * @return true if recalled.
+   */
+  public boolean isRecalled(int slot) {
+    return 0 != slots.get(offset(slot) + RECALLED);
+  }
+
+  /**
+   * Determines if the car in a slot has a request for a floor, as
+   * {@link ElevatorState#hasRequest(FloorDestination)}.
+   * @param slot the car's slot.
+   * @param request the floor request.
+   * @return true if it has the request, false otherwise or if request has priority
+   *         and isn't one of those kept.
+   */
+  public boolean hasRequest(int slot, FloorDestination request) {
+    int at = offset(slot);
+    if( request.isOutsideFloorLimit(floors) ) return false;
+    if( request.hasPriority() ) {
+      for( int priorityAt = at + PRIORITY_REQUESTS; priorityAt < at + REQUESTS; priorityAt += 2 * Integer.BYTES ) {
+        if( slots.getInt(priorityAt) == request.getFloor()
+            && slots.getInt(priorityAt + Integer.BYTES) == request.getPriority() ) return true;
+      }
+      return false;
+    }
+    int bit = request.getFloor() - floors.min();
+    return 0 != (slots.getLong(at + REQUESTS + (bit >>> 6) * Long.BYTES) & (1L << bit));
+  }
+
+  /**
+   * Bid cost of the car in a slot for a request, as
+   * {@link Elevator#calcBidCostRequest(FloorDestination, ElevatorState)}.
+   * @param slot the car's slot.
+   * @param request the floor request.
+   * @return the bid cost.
+   */
+  public double bidCost(int slot, FloorDestination request) {
+    return bidCostAt(offset(slot), request);
+  }
+
+  private double bidCostAt(int at, FloorDestination request) {
+    return Elevator.calcBidCostRequest(request,
+        slots.getInt(at + ID),
+        slots.getInt(at + FLOOR),
+        DIRECTIONS[slots.get(at + DIRECTION)],
+        slots.getInt(at + PRIORITY_SIZE),
+        slots.getInt(at + WORK_SIZE),
+        slots.getInt(at + FLOOR_COUNT),
+        slots.getInt(at + LOAD),
+        slots.getInt(at + CAPACITY),
+        0 != slots.get(at + RECALLED));
+  }
+
+  /**
+   * Finds the slot of the lowest bidder for a request, among slots written.
+   * @param request the floor request.
+   * @return slot, or -1 if none written.
+   */
+  public int lowestBidder(FloorDestination request) {
+    int lowest = -1;
+    double lowestCost = Double.POSITIVE_INFINITY;
+    for( int slot = 0, at = 0; slot < cars; ++slot, at += slotSize ) {
+      if( 0 == slots.get(at + WRITTEN) ) continue;
+      double cost = bidCostAt(at, request);
+      if( -1 == lowest || cost < lowestCost ) {
+        lowest = slot;
+        lowestCost = cost;
+      }
+    }
+    return lowest;
+  }
+
+  private int offset(int slot) {
+    if( slot < 0 || slot >= cars ) throw new IndexOutOfBoundsException("No slot " + slot);
+    return slot * slotSize;
+  }
+
+  /**
+   * Orders states by when they were created, as gossip does, to the nanosecond
+   * from 1970.  Times more than about 292 years away from 1970 are clamped.
+   */
+  private static long version(LocalDateTime created) {
+    long days = created.toLocalDate().toEpochDay();
+    if( days > Long.MAX_VALUE / NANOS_PER_DAY - 1 ) return Long.MAX_VALUE;
+    if( days < Long.MIN_VALUE / NANOS_PER_DAY + 1 ) return Long.MIN_VALUE;
+    return days * NANOS_PER_DAY + created.toLocalTime().toNanoOfDay();
+  }
+}
@@ -0,0 +1,157 @@
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * A simulated, unreliable network for gossip between Elevators, to see how a
+ * bank behaves under faults:  messages may be dropped, delayed, or cut off by
+ * network partitions that are scheduled in advance and later healed.
+ * <p>
+ * Time is simulated, in ticks, and only moves on {@link #advance()}, which also
+ * delivers messages whose delay is up.  Messages with no delay are delivered
+ * as they're sent.
+ */
+public class FaultyNetwork implements GossipNetwork {
+
+  private record Message(long due, long seq, Elevator from, Elevator to, ElevatorStateTable states) {}
+
+  private record Partition(long from, long to, Set<Integer> side) {
+    boolean separates(long tick, Elevator a, Elevator b) {
+      return from <= tick && tick < to
+          && side.contains(a.getId()) != side.contains(b.getId());
+    }
+  }
+
+  private final double dropRate;
+  private final LongSupplier delayTicks;
+  private final RandomGenerator random;
+
+  private final PriorityQueue<Message> inFlight;
+  private final List<Partition> partitions;
+  private long now;
+  private long seq;
+
+  private long sent;
+  private long dropped;
+  private long delivered;
+
+  /**
+   * Creates a network, see {@link #partition(long, long, Set)} for partitions.
+   * @param dropRate probability, between 0 and 1, that a message is lost.
+   * @param delayTicks draws the delay of each message, in ticks (negatives are
+   *                   no delay).
+   * @param random random source for dropping messages.
+   * @throws IllegalArgumentException if dropRate isn't between 0 and 1.
+   */
+  public FaultyNetwork(double dropRate, LongSupplier delayTicks, RandomGenerator random) {
+    if( dropRate < 0 || dropRate > 1 ) throw new IllegalArgumentException("Drop rate must be between 0 and 1");
+
+    this.dropRate = dropRate;
+    this.delayTicks = delayTicks;
+    this.random = random;
+    this.inFlight = new PriorityQueue<>(Comparator.comparingLong(Message::due).thenComparingLong(Message::seq));
+    this.partitions = new ArrayList<>();
+  }
+
+  /**
+   * Schedules a network partition:  from tick from, until tick to when it's healed,
+   * messages between elevators on one side and the rest are dropped.
+   * @param from first tick of the partition (inclusive).
+   * @param to tick the partition is healed (exclusive).
+   * @param side ids of the elevators on one side of the partition.
+   * @throws IllegalArgumentException if to < from.
+   */
+  public synchronized void partition(long from, long to, Set<Integer> side) {
+    if( to < from ) throw new IllegalArgumentException("Partition can't heal before it starts");
+    partitions.add(new Partition(from, to, Set.copyOf(side)));
+  }
+
+  /**
+   * Determines if a scheduled partition separates the given elevators now.
+   * @param a an elevator.
+   * @param b another elevator.
+   * @return true if messages between them are being dropped by a partition.
+   */
+  public synchronized boolean isPartitioned(Elevator a, Elevator b) {
+    for( var partition : partitions ) {
+      if( partition.separates(now, a, b) ) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void send(Elevator from, Elevator to, ElevatorStateTable states) {
+    synchronized( this ) {
+      sent++;
+      if( isPartitioned(from, to) || random.nextDouble() < dropRate ) {
+        dropped++;
+        return;
+      }
+
+      long delay = delayTicks.getAsLong();
+      if( delay > 0 ) {
+        inFlight.add(new Message(now + delay, seq++, from, to, states));
+        return;
+      }
+      delivered++;
+    }
+    // outside our lock, delivering locks the receiver
+    to.updateElevatorStates(from, states);
+  }
+
+  /**
+   * Moves simulated time on a tick, and delivers messages now due, unless a
+   * partition now separates their sender and receiver.
+   * @return the new tick.
+   */
+  public long advance() {
+    List<Message> due = new ArrayList<>();
+    long tick;
+    synchronized( this ) {
+      tick = ++now;
+      while( !inFlight.isEmpty() && inFlight.peek().due() <= now ) {
+        var message = inFlight.poll();
+        if( isPartitioned(message.from(), message.to()) ) {
+          dropped++;
+        } else {
+          delivered++;
+          due.add(message);
+        }
+      }
+    }
+    due.forEach(message -> message.to().updateElevatorStates(message.from(), message.states()));
+    return tick;
+  }
+
+  /**
+   * The current simulated time.
+   * @return tick.
+   */
+  public synchronized long now() {
+    return now;
+  }
+
+  /**
+   * Number of messages sent.
+   * @return sent messages.
+   */
+  public synchronized long sent() {
+    return sent;
+  }
+
+  /**
+   * Number of messages dropped, by chance or partition.
+   * @return dropped messages.
+   */
+  public synchronized long dropped() {
+    return dropped;
+  }
+
+  /**
+   * Number of messages delivered.
+   * @return delivered messages.
+   */
+  public synchronized long delivered() {
+    return delivered;
+  }
+}
@@ -44,6 +44,30 @@ public class FloorDestination implements Comparable<FloorDestination> {
     this(floor, Direction.REST);
   }
 
+  /**
+   * The floor number of this FloorDestination.
+   * @return floor number, natural Int order.
+   */
+  public int getFloor() {
+    return floor;
+  }
+
+  /**
+   * The direction of this FloorDestination, see {@link #hasDirection()}.
+   * @return direction of call.
+   */
+  public Direction getDirection() {
+    return direction;
+  }
+
+  /**
+   * The priority of this FloorDestination, see {@link #hasPriority()}.
+   * @return priority, bigger int is more priority.
+   */
+  public int getPriority() {
+    return priority;
+  }
+
   /**
    * Determines if this FloorDestination has the given floor number.
    * @param floorNumber floor number to test against.
@@ -0,0 +1,63 @@
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * An interval index over items that each serve a range of floors (e.g. the
+ * Elevators of a bank with low-rise, high-rise and shuttle cars).  Looking up
+ * the items eligible to serve a floor is a single O(log n) search, instead of
+ * testing every item's {@link FloorLimits}.
+ * <p>
+ * The floor line is cut into segments at every item's min and max floor, and
+ * each segment keeps the (immutable) list of items serving all of it.
+ *
+ * @param <T> type of item indexed.
+ */
+public class FloorLimitsIndex<T> {
+
+  // segment start floor -> items serving [start, next segment start)
+  private final TreeMap<Long, List<T>> segments;
+
+  /**
+   * Builds an index of the given items.
+   * @param items items to index, eligible lists keep this order.
+   * @param limitsOf gets the floor limits of an item.
+   */
+  public FloorLimitsIndex(Collection<T> items, Function<T, FloorLimits> limitsOf) {
+    this.segments = new TreeMap<>();
+
+    TreeSet<Long> boundaries = new TreeSet<>();
+    for( T item : items ) {
+      var limits = limitsOf.apply(item);
+      boundaries.add((long) limits.min());
+      boundaries.add((long) limits.max() + 1); // long, max can be Integer.MAX_VALUE
+    }
+
+    for( long start : boundaries ) {
+      List<T> serving = new ArrayList<>();
+      for( T item : items ) {
+        var limits = limitsOf.apply(item);
+        if( limits.min() <= start && start <= limits.max() ) serving.add(item);
+      }
+      segments.put(start, List.copyOf(serving));
+    }
+  }
+
+  /**
+   * Items whose floor limits include the given floor.
+   * @param floor floor number.
+   * @return eligible items, in the order given at construction.  Or empty.
+   */
+  public List<T> eligible(int floor) {
+    var segment = segments.floorEntry((long) floor);
+    return null == segment ? List.of() : segment.getValue();
+  }
+
+  /**
+   * Items whose floor limits include the given floor request.
+   * @param floor floor request.
+   * @return eligible items, in the order given at construction.  Or empty.
+   */
+  public List<T> eligible(FloorDestination floor) {
+    return eligible(floor.getFloor());
+  }
+}
@@ -0,0 +1,47 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an elevator moving to a floor.
+ */
+@Name("elevator.FloorVisit")
+@Label("Floor Visit")
+@Category("Elevator")
+@Description("An elevator moving to, and stopping at, a floor")
+public class FloorVisitEvent extends jdk.jfr.Event {
+
+  @Label("Elevator")
+  int elevatorId;
+
+  @Label("From Floor")
+  int fromFloor;
+
+  @Label("Floor")
+  int floor;
+
+  @Label("Direction")
+  String direction;
+
+  @Label("Priority")
+  int priority;
+
+  /**
+   * Commits this event, if it's enabled and over its threshold.
+   * @param elevatorId moving elevator.
+   * @param from floor moved from.
+   * @param to floor moved to.
+   * @param direction direction moved in.
+   */
+  void emit(int elevatorId, FloorDestination from, FloorDestination to, Direction direction) {
+    if( !shouldCommit() ) return;
+
+    this.elevatorId = elevatorId;
+    this.fromFloor = from.getFloor();
+    this.floor = to.getFloor();
+    this.direction = direction.toString();
+    this.priority = to.getPriority();
+    commit();
+  }
+}
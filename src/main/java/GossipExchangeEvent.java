@@ -0,0 +1,47 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an elevator merging states gossiped to it by a peer.
+ */
+@Name("elevator.GossipExchange")
+@Label("Gossip Exchange")
+@Category("Elevator")
+@Description("An elevator merging the elevator states a peer gossiped to it")
+public class GossipExchangeEvent extends jdk.jfr.Event {
+
+  @Label("Elevator")
+  int elevatorId;
+
+  @Label("Partner")
+  @Description("Elevator that sent the states, -1 if unknown")
+  int partnerId;
+
+  @Label("States Merged")
+  @Description("States newer than known, and kept")
+  int statesMerged;
+
+  @Label("States Skipped")
+  @Description("States no newer than known, or our own, and discarded")
+  int statesSkipped;
+
+  /**
+   * Commits this event, if it's enabled and over its threshold.  States skipped
+   * are only counted then, as that scans the states sent.
+   * @param elevatorId receiving elevator.
+   * @param partnerId sending elevator, -1 if unknown.
+   * @param statesMerged states kept.
+   * @param states states sent.
+   */
+  void emit(int elevatorId, int partnerId, int statesMerged, ElevatorStateTable states) {
+    if( !shouldCommit() ) return;
+
+    this.elevatorId = elevatorId;
+    this.partnerId = partnerId;
+    this.statesMerged = statesMerged;
+    this.statesSkipped = states.known() - statesMerged;
+    commit();
+  }
+}
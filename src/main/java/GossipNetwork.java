@@ -0,0 +1,39 @@
+/**
+ * The network gossip between Elevators travels over.  Each gossip exchange is
+ * a message of known states each way, see {@link Elevator#gossip(int)}.
+ */
+public interface GossipNetwork {
+
+  /**
+   * A perfect network:  messages are delivered immediately, and never lost.
+   */
+  GossipNetwork DIRECT = new GossipNetwork() {
+    @Override
+    public void send(Elevator from, Elevator to, ElevatorStateTable states) {
+      to.updateElevatorStates(from, states);
+    }
+
+    @Override
+    public boolean isImmediate() {
+      return true;
+    }
+  };
+
+  /**
+   * Sends known elevator states from one elevator to another.
+   * @param from sending elevator.
+   * @param to receiving elevator.
+   * @param states a snapshot of the sender's known states, only valid until
+   *               send returns if the network {@link #isImmediate()}.
+   */
+  void send(Elevator from, Elevator to, ElevatorStateTable states);
+
+  /**
+   * If every message is delivered (or lost) before send returns, so senders
+   * may reuse the states sent once it does.
+   * @return true if immediate, false by default.
+   */
+  default boolean isImmediate() {
+    return false;
+  }
+}
@@ -0,0 +1,93 @@
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs gossip (anti-entropy) rounds for a set of Elevators in the background,
+ * decoupled from request handling:  while started, the elevators' requests and
+ * moves only read their latest merged view of the bank, rather than gossiping
+ * synchronously first.
+ * <p>
+ * Each round, every elevator gossips with up to fanOut of its peers.
+ */
+public class GossipScheduler implements AutoCloseable {
+
+  private static final System.Logger LOG = System.getLogger(GossipScheduler.class.getName());
+
+  private final List<Elevator> elevators;
+  private final Duration interval;
+  private final int fanOut;
+  private final ScheduledExecutorService executor;
+  private final AtomicLong rounds;
+
+  /**
+   * Creates a gossip scheduler, see {@link #start()}.
+   * @param elevators the elevators to gossip for.
+   * @param interval delay between the end of a round and the start of the next.
+   * @param fanOut max number of peers each elevator gossips with per round.
+   * @throws IllegalArgumentException if interval isn't positive or fanOut < 1.
+   */
+  public GossipScheduler(List<Elevator> elevators, Duration interval, int fanOut) {
+    if( interval.isNegative() || interval.isZero() ) {
+      throw new IllegalArgumentException("Gossip interval must be positive");
+    }
+    if( fanOut < 1 ) throw new IllegalArgumentException("Gossip fan out must be at least 1");
+
+    this.elevators = List.copyOf(elevators);
+    this.interval = interval;
+    this.fanOut = fanOut;
+    this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      var thread = new Thread(r, "gossip-scheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.rounds = new AtomicLong();
+  }
+
+  /**
+   * Starts gossiping in the background, and stops the elevators gossiping
+   * synchronously.
+   * @return this scheduler.
+   */
+  public GossipScheduler start() {
+    elevators.forEach(e -> e.setBackgroundGossip(true));
+    executor.scheduleWithFixedDelay(this::round, 0, interval.toNanos(), TimeUnit.NANOSECONDS);
+    return this;
+  }
+
+  private void round() {
+    try {
+      elevators.forEach(e -> e.gossip(fanOut));
+      rounds.incrementAndGet();
+    } catch (RuntimeException e) {
+      // an exception would cancel all future rounds
+      LOG.log(System.Logger.Level.WARNING, "Gossip round failed", e);
+    }
+  }
+
+  /**
+   * The number of completed gossip rounds.
+   * @return completed rounds.
+   */
+  public long rounds() {
+    return rounds.get();
+  }
+
+  /**
+   * Stops gossiping in the background, waiting for a round in progress, and
+   * returns the elevators to gossiping synchronously.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    elevators.forEach(e -> e.setBackgroundGossip(false));
+  }
+}
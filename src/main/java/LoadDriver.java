@@ -0,0 +1,242 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+
+/**
+ * Command-line load driver:  adds requests of a traffic profile (see
+ * {@link TrafficProfile}) to an {@link ElevatorBank} at a target rate, stepping
+ * the bank as it goes, and reports requests per second, assignment latency
+ * percentiles and allocation per request.
+ * <p>
+ * Requests arrive as a Poisson process.  Latency is measured from when each
+ * request was due, not when it was added, so time spent behind a slow request
+ * counts (i.e. no coordinated omission).  Requests are hall calls, or with
+ * destination dispatch riders' trips (see {@link ElevatorBank#assign(DestinationRequest)}),
+ * mixed with priority requests (e.g. fire, security) at random floors.
+ * <p>
+ * Run with:  {@code java -jar target/faulty-tower-elevator-1.0-SNAPSHOT.jar --profile=up-peak --rate=2000},
+ * see {@link #USAGE}.
+ */
+public class LoadDriver {
+
+  /**
+   * Command-line usage.
+   */
+  public static final String USAGE = """
+      Usage: java -jar faulty-tower-elevator.jar [--help] [--name=value ...]
+        --elevators=8         elevators in the bank
+        --floors=0:30         lowest and highest floors, e.g. -2:40
+        --profile=up-peak     up-peak, down-peak, lunch or inter-floor
+        --rate=1000           target requests per second
+        --seconds=10          time to add requests for, after warm up
+        --warmup=2            seconds of requests before measuring
+        --priority=0.01       fraction of requests that are priority events
+        --tick-ms=100         wall-clock time between bank steps
+        --dispatch=hall       hall (calls bid on) or destination
+        --seed=42             random seed""";
+
+  /**
+   * Options of a load run, parsed from the command line.
+   * @param elevators elevators in the bank.
+   * @param floors floors of the bank.
+   * @param profile traffic profile.
+   * @param rate target requests per second.
+   * @param seconds time to add requests for, after warm up.
+   * @param warmup seconds of requests before measuring.
+   * @param priority fraction of requests that are priority events.
+   * @param tickMillis wall-clock time between bank steps.
+   * @param destinationDispatch if riders' trips are assigned, rather than hall calls bid on.
+   * @param seed random seed.
+   */
+  public record Options(int elevators,
+                        FloorLimits floors,
+                        TrafficProfile profile,
+                        double rate,
+                        double seconds,
+                        double warmup,
+                        double priority,
+                        long tickMillis,
+                        boolean destinationDispatch,
+                        long seed) {
+
+    /**
+     * Creates Options.
+     * @throws IllegalArgumentException if any option is out of range.
+     */
+    public Options {
+      if( elevators < 1 ) throw new IllegalArgumentException("Must have at least one elevator");
+      if( 0 == floors.getNumFloors() ) throw new IllegalArgumentException("Must have at least two floors");
+      if( !(rate > 0) ) throw new IllegalArgumentException("Rate must be positive");
+      if( !(seconds > 0) || warmup < 0 ) throw new IllegalArgumentException("Seconds must be positive, warm up not negative");
+      if( priority < 0 || priority > 1 ) throw new IllegalArgumentException("Priority must be between 0 and 1");
+      if( tickMillis < 1 ) throw new IllegalArgumentException("Tick must be at least a millisecond");
+    }
+
+    /**
+     * Parses options from the command line, see {@link #USAGE}.
+     * @param args arguments, each --name=value.
+     * @return options, with defaults for those not given.
+     * @throws IllegalArgumentException if an argument is unknown or invalid.
+     */
+    public static Options parse(String... args) {
+      int elevators = 8;
+      var floors = new FloorLimits(0, 30);
+      var profile = TrafficProfile.UP_PEAK;
+      double rate = 1000, seconds = 10, warmup = 2, priority = 0.01;
+      long tickMillis = 100, seed = 42;
+      boolean destinationDispatch = false;
+
+      for( String arg : args ) {
+        int equals = arg.indexOf('=');
+        if( !arg.startsWith("--") || equals < 0 ) throw new IllegalArgumentException("Expected --name=value: " + arg);
+        String value = arg.substring(equals + 1);
+        try {
+          switch( arg.substring(2, equals) ) {
+            case "elevators" -> elevators = Integer.parseInt(value);
+            case "floors" -> {
+              int colon = value.indexOf(':', 1);
+              if( colon < 0 ) throw new IllegalArgumentException("Expected --floors=min:max: " + value);
+              floors = new FloorLimits(Integer.parseInt(value.substring(0, colon)), Integer.parseInt(value.substring(colon + 1)));
+            }
+            case "profile" -> profile = TrafficProfile.fromName(value);
+            case "rate" -> rate = Double.parseDouble(value);
+            case "seconds" -> seconds = Double.parseDouble(value);
+            case "warmup" -> warmup = Double.parseDouble(value);
+            case "priority" -> priority = Double.parseDouble(value);
+            case "tick-ms" -> tickMillis = Long.parseLong(value);
+            case "dispatch" -> destinationDispatch = switch( value ) {
+              case "hall" -> false;
+              case "destination" -> true;
+              default -> throw new IllegalArgumentException("Unknown dispatch: " + value);
+            };
+            case "seed" -> seed = Long.parseLong(value);
+            default -> throw new IllegalArgumentException("Unknown option: " + arg);
+          }
+        } catch( NumberFormatException e ) {
+          throw new IllegalArgumentException("Not a number: " + arg, e);
+        }
+      }
+      return new Options(elevators, floors, profile, rate, seconds, warmup, priority, tickMillis, destinationDispatch, seed);
+    }
+  }
+
+  private final Options options;
+  private final com.sun.management.ThreadMXBean threads;
+
+  /**
+   * Creates a driver.
+   * @param options options of the run.
+   */
+  public LoadDriver(Options options) {
+    this.options = options;
+    // allocation is only measured where the JVM supports it
+    var threadBean = ManagementFactory.getThreadMXBean();
+    if( threadBean instanceof com.sun.management.ThreadMXBean allocating
+        && allocating.isThreadAllocatedMemorySupported() ) {
+      allocating.setThreadAllocatedMemoryEnabled(true);
+      this.threads = allocating;
+    } else {
+      this.threads = null;
+    }
+  }
+
+  /**
+   * Runs the load on a new bank, on the calling thread.
+   * @return report of the requests after warm up.
+   */
+  public LoadReport run() {
+    RandomGenerator random = new SplittableRandom(options.seed());
+    try( var bank = new ElevatorBank(options.elevators(), options.floors()) ) {
+      run(bank, random, options.warmup());
+      return run(bank, random, options.seconds());
+    }
+  }
+
+  private LoadReport run(ElevatorBank bank, RandomGenerator random, double seconds) {
+    long tickNanos = options.tickMillis() * 1_000_000;
+    long start = System.nanoTime();
+    long end = start + (long) (seconds * 1e9);
+    long due = start;
+    long nextTick = start + tickNanos;
+
+    long[] latencies = new long[(int) Math.min(Integer.MAX_VALUE - 8, 1024 + 2 * options.rate() * seconds)];
+    int requests = 0;
+    long unassigned = 0;
+    long duplicates = 0;
+    long allocated = 0;
+    long thread = Thread.currentThread().threadId();
+
+    while( true ) {
+      due += (long) (random.nextExponential() / options.rate() * 1e9);
+      if( due >= end ) break;
+      // step the bank, and wait, until the request is due
+      for( long now = System.nanoTime(); now < due; now = System.nanoTime() ) {
+        if( now >= nextTick ) {
+          bank.step();
+          nextTick += tickNanos;
+        } else {
+          LockSupport.parkNanos(Math.min(due, nextTick) - now);
+        }
+      }
+
+      boolean priority = random.nextDouble() < options.priority();
+      var trip = options.profile().next(random, options.floors());
+      var request = priority
+          ? new FloorDestination(trip.origin(), Direction.REST, 1 + random.nextInt(3))
+          : trip.pickup();
+      long allocatedBefore = null == threads ? 0 : threads.getThreadAllocatedBytes(thread);
+      boolean assigned = add(bank, trip, request);
+      long done = System.nanoTime();
+      if( null != threads ) allocated += threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+      // a call someone's already made isn't a failure, checked for after timing
+      if( !assigned && isBidOn(request) && bank.hasRequest(request) ) duplicates++;
+      else if( !assigned ) unassigned++;
+      if( requests == latencies.length ) latencies = Arrays.copyOf(latencies, 2 * requests);
+      latencies[requests++] = done - due;
+    }
+
+    latencies = Arrays.copyOf(latencies, requests);
+    Arrays.sort(latencies);
+    return new LoadReport(requests, unassigned, duplicates, seconds, latencies, null == threads ? -1 : allocated);
+  }
+
+  private boolean add(ElevatorBank bank, DestinationRequest trip, FloorDestination request) {
+    if( !isBidOn(request) ) return -1 != bank.assign(trip);
+    return bank.addRequest(request) > 0;
+  }
+
+  /**
+   * If a request is bid on, rather than a rider's trip assigned with destination
+   * dispatch.
+   */
+  private boolean isBidOn(FloorDestination request) {
+    return !options.destinationDispatch() || request.hasPriority();
+  }
+
+  public static void main(String[] args) {
+    if( Arrays.asList(args).contains("--help") ) {
+      System.out.println(USAGE);
+      return;
+    }
+
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch( IllegalArgumentException e ) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+
+    System.out.printf("%d elevators, floors %d to %d, %s at %.0f req/s, %s dispatch, %.1f%% priority%n",
+        options.elevators(), options.floors().min(), options.floors().max(),
+        options.profile().profileName(), options.rate(),
+        options.destinationDispatch() ? "destination" : "hall",
+        100 * options.priority());
+    System.out.println(new LoadDriver(options).run());
+  }
+}
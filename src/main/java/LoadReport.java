@@ -0,0 +1,63 @@
+/**
+ * Results of a load run, see {@link LoadDriver}.
+ * @param requests number of requests added to the bank, after warm up.
+ * @param unassigned number of those no elevator took, other than duplicates.
+ * @param duplicates number of hall calls (or priority requests) no elevator took
+ *                   as one already had it, e.g. a second rider pressing the button.
+ * @param seconds wall-clock time the requests were added over.
+ * @param latencyNanos sorted latency of each request, from when it was due to
+ *                     when the bank returned.
+ * @param allocatedBytes bytes allocated adding requests, or -1 if not measured.
+ */
+public record LoadReport(long requests,
+                         long unassigned,
+                         long duplicates,
+                         double seconds,
+                         long[] latencyNanos,
+                         long allocatedBytes) {
+
+  /**
+   * Requests added per second.
+   * @return throughput.
+   */
+  public double requestsPerSecond() {
+    return requests / seconds;
+  }
+
+  /**
+   * A latency percentile.
+   * @param percentile between 0 and 100.
+   * @return latency in nanoseconds, 0 if there were no requests.
+   */
+  public long latencyPercentile(double percentile) {
+    if( 0 == latencyNanos.length ) return 0;
+    int at = (int) Math.ceil(percentile / 100 * latencyNanos.length) - 1;
+    return latencyNanos[Math.min(Math.max(0, at), latencyNanos.length - 1)];
+  }
+
+  /**
+   * Bytes allocated per request.
+   * @return mean allocation, or -1 if not measured.
+   */
+  public double allocatedBytesPerRequest() {
+    if( allocatedBytes < 0 ) return -1;
+    return 0 == requests ? 0 : (double) allocatedBytes / requests;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("""
+        requests      %d (%d unassigned, %d duplicates) in %.1fs
+        throughput    %.0f req/s
+        latency us    p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f
+        allocation    %s per request""",
+        requests, unassigned, duplicates, seconds,
+        requestsPerSecond(),
+        latencyPercentile(50) / 1e3,
+        latencyPercentile(90) / 1e3,
+        latencyPercentile(99) / 1e3,
+        latencyPercentile(99.9) / 1e3,
+        latencyPercentile(100) / 1e3,
+        allocatedBytes < 0 ? "n/a" : String.format("%.0f bytes", allocatedBytesPerRequest()));
+  }
+}
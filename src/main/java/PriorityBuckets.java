@@ -0,0 +1,100 @@
+import java.util.*;
+
+/**
+ * A queue of priority requests, bucketed by priority level:  one FIFO queue per
+ * level, highest level first.  Adding and polling only touch the bucket for the
+ * level, found in O(log levels), rather than re-ordering every request by
+ * comparison as a {@link PriorityQueue} does.
+ * <p>
+ * Unlike {@link FloorDestination#compareTo(FloorDestination)}, requests of the
+ * same priority are served in the order added, not by floor.
+ */
+public class PriorityBuckets extends AbstractQueue<FloorDestination> {
+
+  private final TreeMap<Integer, ArrayDeque<FloorDestination>> buckets;
+  private int size;
+
+  /**
+   * Creates an empty queue.
+   */
+  public PriorityBuckets() {
+    this.buckets = new TreeMap<>(Comparator.reverseOrder());
+  }
+
+  @Override
+  public boolean offer(FloorDestination floor) {
+    if( null == floor ) throw new NullPointerException("Null floors not allowed");
+    buckets.computeIfAbsent(floor.getPriority(), p -> new ArrayDeque<>()).addLast(floor);
+    size++;
+    return true;
+  }
+
+  @Override
+  public FloorDestination poll() {
+    var highest = buckets.firstEntry();
+    if( null == highest ) return null;
+
+    var floor = highest.getValue().pollFirst();
+    if( highest.getValue().isEmpty() ) buckets.remove(highest.getKey());
+    size--;
+    return floor;
+  }
+
+  @Override
+  public FloorDestination peek() {
+    var highest = buckets.firstEntry();
+    return null == highest ? null : highest.getValue().peekFirst();
+  }
+
+  /**
+   * Removes a single instance of the given floor, if present.
+   * @param o floor to remove.
+   * @return true if removed, false otherwise.
+   */
+  @Override
+  public boolean remove(Object o) {
+    if( !(o instanceof FloorDestination floor) ) return false;
+    var bucket = buckets.get(floor.getPriority());
+    if( null == bucket || !bucket.remove(floor) ) return false;
+
+    if( bucket.isEmpty() ) buckets.remove(floor.getPriority());
+    size--;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    buckets.clear();
+    size = 0;
+  }
+
+  /**
+   * Iterates in poll order, removal not supported.
+   * @return iterator over requests, highest priority first.
+   */
+  @Override
+  public Iterator<FloorDestination> iterator() {
+    // bucket by bucket, as streaming them allocates on every state snapshot
+    var bucketIterator = buckets.values().iterator();
+    return new Iterator<>() {
+      private Iterator<FloorDestination> bucket = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while( !bucket.hasNext() && bucketIterator.hasNext() ) bucket = bucketIterator.next().iterator();
+        return bucket.hasNext();
+      }
+
+      @Override
+      public FloorDestination next() {
+        if( !hasNext() ) throw new NoSuchElementException();
+        return bucket.next();
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,51 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an elevator accepting, or rejecting, a request.
+ */
+@Name("elevator.RequestDecision")
+@Label("Request Decision")
+@Category("Elevator")
+@Description("An elevator accepting or rejecting a request, and why")
+public class RequestDecisionEvent extends jdk.jfr.Event {
+
+  @Label("Elevator")
+  int elevatorId;
+
+  @Label("Request Floor")
+  int requestFloor;
+
+  @Label("Request Direction")
+  String requestDirection;
+
+  @Label("Request Priority")
+  int requestPriority;
+
+  @Label("Accepted")
+  boolean accepted;
+
+  @Label("Reason")
+  @Description("Why the request was rejected, or accepted")
+  String reason;
+
+  /**
+   * Commits this event, if it's enabled and over its threshold.
+   * @param elevatorId deciding elevator.
+   * @param request the request.
+   * @param rejection why the request was rejected, or null if accepted.
+   */
+  void emit(int elevatorId, FloorDestination request, String rejection) {
+    if( !shouldCommit() ) return;
+
+    this.elevatorId = elevatorId;
+    this.requestFloor = request.getFloor();
+    this.requestDirection = request.getDirection().toString();
+    this.requestPriority = request.getPriority();
+    this.accepted = null == rejection;
+    this.reason = null == rejection ? "lowest bid" : rejection;
+    commit();
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * A floor request to add to an elevator bank at a point in simulated time.
+ * @param tick simulated time to add the request at, in ticks (i.e. bank steps).
+ * @param request the requested floor.
+ */
+public record ScheduledRequest(long tick, FloorDestination request) {
+}
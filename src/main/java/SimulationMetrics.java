@@ -0,0 +1,36 @@
+/**
+ * Counts from simulating one or more elevator banks, see {@link SimulationRunner}.
+ * @param banks number of banks simulated.
+ * @param requests number of requests added to banks.
+ * @param accepted number of acceptances of requests, a request may be accepted by
+ *                 more than one elevator.
+ * @param unassigned number of requests no elevator accepted.
+ * @param moves number of elevator moves, i.e. floors visited.
+ * @param ticks simulated time run for, in ticks.
+ */
+public record SimulationMetrics(long banks,
+                                long requests,
+                                long accepted,
+                                long unassigned,
+                                long moves,
+                                long ticks) {
+
+  /**
+   * Metrics of simulating nothing.
+   */
+  public static final SimulationMetrics EMPTY = new SimulationMetrics(0, 0, 0, 0, 0, 0);
+
+  /**
+   * Merges metrics of banks simulated side by side over the same simulated time.
+   * @param other metrics of the other banks.
+   * @return combined metrics.
+   */
+  public SimulationMetrics merge(SimulationMetrics other) {
+    return new SimulationMetrics(banks + other.banks,
+        requests + other.requests,
+        accepted + other.accepted,
+        unassigned + other.unassigned,
+        moves + other.moves,
+        Math.max(ticks, other.ticks));
+  }
+}
@@ -0,0 +1,167 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates many independent elevator banks (e.g. a campus of buildings) in
+ * parallel.  Banks are sharded across a fixed pool of threads, one shard per
+ * thread (by default one per core), and each shard steps its own banks with its
+ * own simulated clock.  Shards only synchronize at time barriers, every
+ * barrierInterval ticks, and their metrics are merged at the end.
+ * <p>
+ * A tick adds each bank's requests scheduled for it, then steps the bank
+ * (see {@link ElevatorBank#step()}).  Banks must not be shared with other
+ * threads while running, and must not gossip in the background.
+ */
+public class SimulationRunner implements AutoCloseable {
+
+  private final int shards;
+  private final ExecutorService executor;
+  private final AtomicLong virtualTime;
+
+  /**
+   * Creates a runner with one shard per available core.
+   */
+  public SimulationRunner() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a runner.
+   * @param shards number of shards (threads) to run banks on.
+   * @throws IllegalArgumentException if shards < 1.
+   */
+  public SimulationRunner(int shards) {
+    if( shards < 1 ) throw new IllegalArgumentException("Must have at least one shard");
+
+    this.shards = shards;
+    var threadIds = new AtomicLong();
+    this.executor = Executors.newFixedThreadPool(shards, r -> {
+      var thread = new Thread(r, "simulation-shard-" + threadIds.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.virtualTime = new AtomicLong();
+  }
+
+  /**
+   * Simulated time all shards have reached, i.e. of the last time barrier.
+   * @return simulated time in ticks.
+   */
+  public long virtualTime() {
+    return virtualTime.get();
+  }
+
+  /**
+   * Runs banks for the given simulated time.
+   * @param workload banks to run, and the requests to add to each.  Banks are
+   *                 assigned to shards round-robin, in iteration order.
+   * @param ticks simulated time to run for, requests scheduled at or after it
+   *              aren't added.
+   * @param barrierInterval ticks between time barriers.
+   * @return metrics merged across all banks.
+   * @throws IllegalArgumentException if ticks < 0 or barrierInterval < 1.
+   * @throws IllegalStateException if a shard failed, or interrupted.
+   */
+  public SimulationMetrics run(Map<ElevatorBank, List<ScheduledRequest>> workload,
+                               long ticks,
+                               long barrierInterval) {
+    if( ticks < 0 ) throw new IllegalArgumentException("Ticks can't be negative");
+    if( barrierInterval < 1 ) throw new IllegalArgumentException("Barrier interval must be at least 1");
+
+    int numShards = Math.min(shards, workload.size());
+    if( 0 == numShards ) return SimulationMetrics.EMPTY;
+
+    List<List<ElevatorBank>> shardBanks = new ArrayList<>(numShards);
+    for( int i = 0; i < numShards; ++i ) shardBanks.add(new ArrayList<>());
+    int i = 0;
+    for( var bank : workload.keySet() ) shardBanks.get(i++ % numShards).add(bank);
+
+    var reached = new AtomicLong();
+    var barrier = new Phaser(numShards) {
+      @Override
+      protected boolean onAdvance(int phase, int registeredParties) {
+        virtualTime.set(reached.get());
+        return false;
+      }
+    };
+    virtualTime.set(0);
+
+    List<Future<SimulationMetrics>> results = new ArrayList<>(numShards);
+    for( var banks : shardBanks ) {
+      results.add(executor.submit(() -> {
+        try {
+          return runShard(banks, workload, ticks, barrierInterval, barrier, reached);
+        } catch (Throwable e) {
+          barrier.forceTermination(); // release the other shards, on errors too
+          throw e;
+        }
+      }));
+    }
+
+    var merged = SimulationMetrics.EMPTY;
+    Throwable failure = null;
+    for( var result : results ) {
+      try {
+        merged = merged.merge(result.get());
+      } catch (ExecutionException e) {
+        // prefer the shard that failed, over those released by it
+        if( null == failure || failure instanceof CancellationException ) failure = e.getCause();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted waiting for simulation", e);
+      }
+    }
+    if( null != failure ) throw new IllegalStateException("Simulation shard failed", failure);
+
+    return merged;
+  }
+
+  private static SimulationMetrics runShard(List<ElevatorBank> banks,
+                                            Map<ElevatorBank, List<ScheduledRequest>> workload,
+                                            long ticks,
+                                            long barrierInterval,
+                                            Phaser barrier,
+                                            AtomicLong reached) {
+    // per bank: requests in tick order, and the next one not yet added
+    List<List<ScheduledRequest>> scheduled = new ArrayList<>(banks.size());
+    for( var bank : banks ) {
+      List<ScheduledRequest> requests = new ArrayList<>(workload.get(bank));
+      requests.sort(Comparator.comparingLong(ScheduledRequest::tick));
+      scheduled.add(requests);
+    }
+    int[] next = new int[banks.size()];
+
+    long requests = 0, accepted = 0, unassigned = 0, moves = 0;
+    for( long tick = 0; tick < ticks; ++tick ) {
+      for( int b = 0; b < banks.size(); ++b ) {
+        var bank = banks.get(b);
+        var bankRequests = scheduled.get(b);
+        while( next[b] < bankRequests.size() && bankRequests.get(next[b]).tick() <= tick ) {
+          int numAccepted = bank.addRequest(bankRequests.get(next[b]++).request());
+          requests++;
+          accepted += numAccepted;
+          if( 0 == numAccepted ) unassigned++;
+        }
+        moves += bank.step();
+      }
+
+      if( 0 == (tick + 1) % barrierInterval || tick + 1 == ticks ) {
+        reached.set(tick + 1);
+        if( barrier.arriveAndAwaitAdvance() < 0 ) {
+          throw new CancellationException("Simulation stopped by another shard");
+        }
+      }
+    }
+
+    return new SimulationMetrics(banks.size(), requests, accepted, unassigned, moves, ticks);
+  }
+
+  /**
+   * Stops the shard threads.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
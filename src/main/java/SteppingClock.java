@@ -0,0 +1,62 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock for deterministic runs (see {@link ElevatorBank#setDeterministic(long, Clock)}):
+ * it starts at a fixed instant, and each reading moves it on by a fixed step.
+ * Readings are unique, so states are always ordered by when they were created,
+ * and given the same sequence of readings they repeat exactly from run to run.
+ */
+public class SteppingClock extends Clock {
+
+  private final Instant start;
+  private final Duration step;
+  private final ZoneId zone;
+  private final AtomicLong readings;
+
+  /**
+   * Creates a clock.
+   * @param start instant of the first reading.
+   * @param step time between readings.
+   * @param zone time zone of the clock.
+   * @throws IllegalArgumentException if step isn't positive.
+   */
+  public SteppingClock(Instant start, Duration step, ZoneId zone) {
+    this(start, step, zone, new AtomicLong());
+    if( step.isNegative() || step.isZero() ) throw new IllegalArgumentException("Step must be positive");
+  }
+
+  private SteppingClock(Instant start, Duration step, ZoneId zone, AtomicLong readings) {
+    this.start = start;
+    this.step = step;
+    this.zone = zone;
+    this.readings = readings;
+  }
+
+  /**
+   * The time, moving the clock on a step.
+   * @return instant of this reading.
+   */
+  @Override
+  public Instant instant() {
+    return start.plus(step.multipliedBy(readings.getAndIncrement()));
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * A view of this clock in another zone, reading it moves this clock on too.
+   * @param zone the time zone.
+   * @return clock sharing this one's readings.
+   */
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return zone.equals(this.zone) ? this : new SteppingClock(start, step, zone, readings);
+  }
+}
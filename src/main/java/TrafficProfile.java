@@ -0,0 +1,82 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Standard elevator traffic profiles, as riders' origins and destinations:
+ * most riders of a peak travel to or from the lobby (the ground floor, or the
+ * floor nearest it), the rest between other floors.
+ */
+public enum TrafficProfile {
+
+  /** Morning arrivals:  mostly from the lobby up. */
+  UP_PEAK("up-peak", 0.85, 0),
+  /** Evening departures:  mostly down to the lobby. */
+  DOWN_PEAK("down-peak", 0, 0.85),
+  /** Lunch:  to and from the lobby alike, some between floors. */
+  LUNCH("lunch", 0.4, 0.4),
+  /** Between random floors, as arrivals of a Poisson process. */
+  INTER_FLOOR("inter-floor", 0, 0);
+
+  private final String profileName;
+  private final double fromLobby;
+  private final double toLobby;
+
+  TrafficProfile(String profileName, double fromLobby, double toLobby) {
+    this.profileName = profileName;
+    this.fromLobby = fromLobby;
+    this.toLobby = toLobby;
+  }
+
+  /**
+   * The profile's name on the command line, e.g. "up-peak".
+   * @return name.
+   */
+  public String profileName() {
+    return profileName;
+  }
+
+  /**
+   * Finds a profile by its name on the command line.
+   * @param profileName name, see {@link #profileName()}.
+   * @return the profile.
+   * @throws IllegalArgumentException if there's no such profile.
+   */
+  public static TrafficProfile fromName(String profileName) {
+    for( var profile : values() ) {
+      if( profile.profileName.equals(profileName) ) return profile;
+    }
+    throw new IllegalArgumentException("Unknown traffic profile: " + profileName);
+  }
+
+  /**
+   * Draws the next rider's trip.
+   * @param random random source.
+   * @param floors floors of the bank, at least two.
+   * @return origin and destination of the rider.
+   * @throws IllegalArgumentException if floors is a single floor.
+   */
+  public DestinationRequest next(RandomGenerator random, FloorLimits floors) {
+    if( 0 == floors.getNumFloors() ) throw new IllegalArgumentException("Must have at least two floors");
+
+    int lobby = lobby(floors);
+    double draw = random.nextDouble();
+    if( draw < fromLobby ) return new DestinationRequest(lobby, otherFloor(random, floors, lobby));
+    if( draw < fromLobby + toLobby ) return new DestinationRequest(otherFloor(random, floors, lobby), lobby);
+
+    int origin = floors.min() + random.nextInt(floors.getNumFloors() + 1);
+    return new DestinationRequest(origin, otherFloor(random, floors, origin));
+  }
+
+  /**
+   * The lobby:  the ground floor, or the floor nearest it.
+   * @param floors floors of the bank.
+   * @return lobby floor.
+   */
+  public static int lobby(FloorLimits floors) {
+    return Math.min(Math.max(0, floors.min()), floors.max());
+  }
+
+  private static int otherFloor(RandomGenerator random, FloorLimits floors, int floor) {
+    int other = floors.min() + random.nextInt(floors.getNumFloors());
+    return other >= floor ? other + 1 : other;
+  }
+}
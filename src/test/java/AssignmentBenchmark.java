@@ -0,0 +1,181 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmarks the central assignment solver ({@link AssignmentSolver}) on the
+ * elevators' bid costs, for pending calls across a bank:  solve time, and total
+ * cost against assigning each call in turn to its cheapest car with room (as
+ * bidding does), with the same capacity of an even share per car.
+ * <p>
+ * Solves are timed cold, with a new solver each time, and warm, with one solver
+ * re-solving as the bank moves on between solves (a tenth of the calls are new
+ * and a tenth of the cars have moved), as periodic reassignment does.
+ * <p>
+ * Then {@link ElevatorBank#reassign(double)} is timed end to end, on a bank with
+ * about as many pending calls:  reading the elevators' states, building the cost
+ * matrix, solving and moving calls.  Between reassignments the bank steps, and
+ * is topped up with new calls to the same number pending.
+ * <p>
+ * Not a test, run with:  {@code java -cp target/classes:target/test-classes AssignmentBenchmark}
+ */
+public class AssignmentBenchmark {
+
+  private static final FloorLimits FLOORS = new FloorLimits(0, 60);
+  private static final int WARMUP = 2_000;
+  private static final int RUNS = 1_000;
+  private static final double CHANGED = 0.1;
+
+  public static void main(String[] args) {
+    System.out.printf("%-6s %-6s %-5s %10s %10s %10s %12s %12s%n",
+        "cars", "calls", "start", "p50 us", "p99 us", "max us", "greedy cost", "solved cost");
+    for( int[] size : new int[][] { { 8, 50 }, { 16, 160 }, { 50, 500 } } ) {
+      System.out.println(run(size[0], size[1], false));
+      System.out.println(run(size[0], size[1], true));
+    }
+
+    System.out.println();
+    System.out.printf("%-6s %-8s %10s %10s %10s %10s%n", "cars", "pending", "p50 us", "p99 us", "max us", "moved");
+    for( int[] size : new int[][] { { 8, 50 }, { 16, 160 }, { 50, 500 } } ) {
+      System.out.println(runReassign(size[0], size[1]));
+    }
+  }
+
+  /**
+   * Times reassign on a bank of cars with about calls pending hall calls, on
+   * floors enough for each call to be distinct.
+   */
+  private static String runReassign(int cars, int calls) {
+    var random = new Random(42);
+    var floors = new FloorLimits(0, 2 * calls);
+    var bank = new ElevatorBank(cars, floors);
+    bank.setDeterministic(42);
+
+    long[] nanos = new long[RUNS];
+    long moved = 0, pending = 0;
+    for( int i = -WARMUP / 10; i < RUNS; ++i ) {
+      int numPending;
+      while( (numPending = pending(bank)) < calls ) addCall(random, bank, floors);
+
+      long start = System.nanoTime();
+      int numMoved = bank.reassign(1);
+      long elapsed = System.nanoTime() - start;
+
+      // the bank moves on, one stop per car, and is topped up before the next
+      bank.step();
+      if( i < 0 ) continue;
+
+      nanos[i] = elapsed;
+      moved += numMoved;
+      pending += numPending;
+    }
+    Arrays.sort(nanos);
+
+    return String.format("%-6d %-8.1f %10.1f %10.1f %10.1f %10.1f",
+        cars,
+        (double) pending / RUNS,
+        nanos[RUNS / 2] / 1e3,
+        nanos[(int) (RUNS * 0.99)] / 1e3,
+        nanos[RUNS - 1] / 1e3,
+        (double) moved / RUNS);
+  }
+
+  private static int pending(ElevatorBank bank) {
+    int pending = 0;
+    for( var elevator : bank.bank ) pending += elevator.getElevatorState().workSize();
+    return pending;
+  }
+
+  private static void addCall(Random random, ElevatorBank bank, FloorLimits floors) {
+    var elevator = bank.bank.get(random.nextInt(bank.bank.size()));
+    elevator.assignRequest(new FloorDestination(random.nextInt(floors.max() + 1),
+        random.nextBoolean() ? Direction.UP : Direction.DOWN));
+  }
+
+  private static String run(int cars, int calls, boolean warm) {
+    var random = new Random(42);
+    var solver = new AssignmentSolver();
+
+    ElevatorState[] states = new ElevatorState[cars];
+    for( int car = 0; car < cars; ++car ) states[car] = randomState(random, car);
+    FloorDestination[] requests = new FloorDestination[calls];
+    for( int call = 0; call < calls; ++call ) requests[call] = randomRequest(random);
+    double[][] costs = new double[calls][cars];
+    int[] capacity = new int[cars];
+    Arrays.fill(capacity, (calls + cars - 1) / cars);
+
+    int[] assignment = null;
+    long[] nanos = new long[RUNS];
+    double greedy = 0, solved = 0;
+    for( int i = -WARMUP; i < RUNS; ++i ) {
+      if( warm ) {
+        for( int car = 0; car < cars; ++car ) {
+          if( random.nextDouble() < CHANGED ) states[car] = randomState(random, car);
+        }
+        for( int call = 0; call < calls; ++call ) {
+          if( random.nextDouble() < CHANGED ) requests[call] = randomRequest(random);
+        }
+      } else {
+        solver = new AssignmentSolver();
+      }
+      // the matrix is built as the bank does, but not timed
+      for( int call = 0; call < calls; ++call ) {
+        for( int car = 0; car < cars; ++car ) costs[call][car] = Elevator.calcBidCostRequest(requests[call], states[car]);
+      }
+
+      long start = System.nanoTime();
+      assignment = solver.solve(costs, capacity);
+      long elapsed = System.nanoTime() - start;
+      if( i < 0 ) continue;
+
+      nanos[i] = elapsed;
+      greedy += greedyCost(costs, capacity);
+      solved += cost(costs, assignment);
+    }
+    Arrays.sort(nanos);
+
+    return String.format("%-6d %-6d %-5s %10.1f %10.1f %10.1f %12.1f %12.1f",
+        cars,
+        calls,
+        warm ? "warm" : "cold",
+        nanos[RUNS / 2] / 1e3,
+        nanos[(int) (RUNS * 0.99)] / 1e3,
+        nanos[RUNS - 1] / 1e3,
+        greedy / RUNS,
+        solved / RUNS);
+  }
+
+  private static ElevatorState randomState(Random random, int car) {
+    var direction = Direction.values()[random.nextInt(Direction.values().length)];
+    return new ElevatorState(car,
+        new FloorDestination(random.nextInt(FLOORS.max() + 1)),
+        direction,
+        0,
+        random.nextInt(20),
+        FLOORS.getNumFloors());
+  }
+
+  private static FloorDestination randomRequest(Random random) {
+    return new FloorDestination(random.nextInt(FLOORS.max() + 1),
+        random.nextBoolean() ? Direction.UP : Direction.DOWN);
+  }
+
+  private static double greedyCost(double[][] costs, int[] capacity) {
+    int[] used = new int[capacity.length];
+    double total = 0;
+    for( var row : costs ) {
+      int best = -1;
+      for( int car = 0; car < row.length; ++car ) {
+        if( used[car] < capacity[car] && (-1 == best || row[car] < row[best]) ) best = car;
+      }
+      used[best]++;
+      total += row[best];
+    }
+    return total;
+  }
+
+  private static double cost(double[][] costs, int[] assignment) {
+    double total = 0;
+    for( int call = 0; call < assignment.length; ++call ) total += costs[call][assignment[call]];
+    return total;
+  }
+}
@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssignmentSolverTest {
+
+  private static final double INF = Double.POSITIVE_INFINITY;
+
+  private final AssignmentSolver solver = new AssignmentSolver();
+
+  @Test
+  void testBeatsGreedy() {
+    // greedy gives call 0 car 0 (1), leaving call 1 car 1 (10)
+    double[][] costs = {
+        { 1, 2 },
+        { 2, 10 } };
+
+    assertArrayEquals(new int[] { 1, 0 }, solver.solve(costs, new int[] { 1, 1 }));
+  }
+
+  @Test
+  void testCapacity() {
+    double[][] costs = {
+        { 1, 5 },
+        { 1, 5 },
+        { 1, 5 } };
+
+    int[] assignment = solver.solve(costs, new int[] { 2, 2 });
+    int onFirst = 0;
+    for( int car : assignment ) if( 0 == car ) onFirst++;
+    assertEquals(2, onFirst);
+  }
+
+  @Test
+  void testUnassigned() {
+    double[][] costs = {
+        { 3, INF },
+        { INF, INF },
+        { 1, INF } };
+
+    // first come first served
+    assertArrayEquals(new int[] { 0, -1, -1 }, solver.solve(costs, new int[] { 1, 4 }));
+    assertArrayEquals(new int[] { -1, -1, -1 }, solver.solve(costs, new int[] { 0, 4 }));
+    assertArrayEquals(new int[0], solver.solve(new double[0][2], new int[] { 1, 1 }));
+  }
+
+  @Test
+  void testMinimumCost() {
+    // one solver, so later trials start from the potentials of earlier ones
+    var random = new Random(42);
+    for( int trial = 0; trial < 200; ++trial ) {
+      int calls = 1 + random.nextInt(7);
+      int cars = 1 + random.nextInt(3);
+      double[][] costs = new double[calls][cars];
+      for( var row : costs ) {
+        for( int car = 0; car < cars; ++car ) row[car] = random.nextInt(5) == 0 ? INF : random.nextDouble(50);
+      }
+      int[] capacity = new int[cars];
+      for( int car = 0; car < cars; ++car ) capacity[car] = random.nextInt(4);
+
+      int[] assignment = solver.solve(costs, capacity);
+      int[] used = new int[cars];
+      for( int call = 0; call < calls; ++call ) {
+        if( -1 != assignment[call] ) {
+          assertTrue(costs[call][assignment[call]] < INF);
+          assertTrue(++used[assignment[call]] <= capacity[assignment[call]]);
+        }
+      }
+
+      var best = bruteForce(costs, capacity, 0, new int[cars]);
+      assertEquals(best[0], assigned(assignment));
+      // when not all fit, which are assigned is first come first served
+      if( best[0] == calls ) assertEquals(best[1], cost(costs, assignment), 1e-9);
+    }
+  }
+
+  @Test
+  void testInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> solver.solve(new double[][] { { 1 } }, new int[] { 1, 1 }));
+    assertThrows(IllegalArgumentException.class, () -> solver.solve(new double[][] { { 1 } }, new int[] { -1 }));
+  }
+
+  private static int assigned(int[] assignment) {
+    int assigned = 0;
+    for( int car : assignment ) if( -1 != car ) assigned++;
+    return assigned;
+  }
+
+  private static double cost(double[][] costs, int[] assignment) {
+    double cost = 0;
+    for( int call = 0; call < assignment.length; ++call ) {
+      if( -1 != assignment[call] ) cost += costs[call][assignment[call]];
+    }
+    return cost;
+  }
+
+  /**
+   * Most calls assigned, then least cost, of every assignment from call onward.
+   * @return { calls assigned, cost }
+   */
+  private static double[] bruteForce(double[][] costs, int[] capacity, int call, int[] used) {
+    if( call == costs.length ) return new double[] { 0, 0 };
+
+    var best = bruteForce(costs, capacity, call + 1, used);
+    for( int car = 0; car < capacity.length; ++car ) {
+      if( used[car] == capacity[car] || INF == costs[call][car] ) continue;
+      used[car]++;
+      var rest = bruteForce(costs, capacity, call + 1, used);
+      used[car]--;
+      double assigned = rest[0] + 1;
+      double cost = rest[1] + costs[call][car];
+      if( assigned > best[0] || (assigned == best[0] && cost < best[1]) ) best = new double[] { assigned, cost };
+    }
+    return best;
+  }
+}
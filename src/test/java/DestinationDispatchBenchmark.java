@@ -0,0 +1,144 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Benchmarks destination dispatch ({@link ElevatorBank#assign(DestinationRequest)})
+ * against conventional dispatch (hall calls bid on, destinations pressed once
+ * aboard) on a simulated up-peak:  riders arrive at the lobby, each going to a
+ * random floor above it, and each car carries at most {@value #CAPACITY} riders.
+ * <p>
+ * Handling capacity is riders delivered per 100 ticks once arrivals outpace the
+ * bank.  A tick is a bank step, where each car moves to its next stop, so fewer
+ * stops per trip means more trips.  Destination dispatch is run at a few stop
+ * penalties:  higher ones group riders into fewer stops, but riders may wait
+ * longer for a car with their stop.  Time in system, from arrival to drop-off,
+ * is the mean number of riders in the system over delivery rate (Little's law).
+ * <p>
+ * Not a test, run with:  {@code java -cp target/classes:target/test-classes DestinationDispatchBenchmark}
+ */
+public class DestinationDispatchBenchmark {
+
+  private static final int ELEVATORS = 6;
+  private static final FloorLimits FLOORS = new FloorLimits(0, 30);
+  private static final int CAPACITY = 12;
+  private static final long TICKS = 5_000;
+  private static final double[] STOP_PENALTIES = { 5, 20, ElevatorBank.DEFAULT_STOP_PENALTY };
+
+  public static void main(String[] args) {
+    System.out.printf("%d elevators, lobby and floors 1 to %d, %d riders per car, %d ticks%n",
+        ELEVATORS, FLOORS.max(), CAPACITY, TICKS);
+    System.out.printf("%-8s %-18s %14s %12s %12s %8s%n",
+        "arrivals", "dispatch", "delivered/100", "stops/rider", "ticks/rider", "gain %");
+    for( double arrivals : new double[] { 1, 2, 4, 8, 16 } ) {
+      var conventional = conventional(arrivals);
+      System.out.println(conventional.format(arrivals, "conventional", conventional));
+      for( double stopPenalty : STOP_PENALTIES ) {
+        var destination = destination(arrivals, stopPenalty);
+        System.out.println(destination.format(arrivals, "destination " + stopPenalty, conventional));
+      }
+    }
+  }
+
+  private record Result(long delivered, long stops, long riderTicks) {
+    String format(double arrivals, String dispatch, Result baseline) {
+      return String.format("%-8.1f %-18s %14.1f %12.2f %12.1f %8.1f",
+          arrivals,
+          dispatch,
+          100.0 * delivered / TICKS,
+          (double) stops / delivered,
+          (double) riderTicks / delivered,
+          100.0 * (delivered - baseline.delivered) / baseline.delivered);
+    }
+  }
+
+  /**
+   * Riders wait at the lobby, and board cars that answer the up hall call, up
+   * to capacity, pressing their destinations.  As many cars answer it as the
+   * riders waiting need, the cheapest to bid on it first.
+   */
+  private static Result conventional(double arrivals) {
+    var random = new Random(42);
+    var bank = new ElevatorBank(ELEVATORS, FLOORS);
+    var lobbyCall = new FloorDestination(FLOORS.min(), Direction.UP);
+    Deque<Integer> waiting = new ArrayDeque<>();
+    List<Map<Integer, Integer>> onBoard = new ArrayList<>();
+    int[] riding = new int[ELEVATORS];
+    bank.bank.forEach(e -> onBoard.add(new HashMap<>()));
+    long[] delivered = { 0 }, stops = { 0 };
+    long riderTicks = 0;
+
+    for( long tick = 0; tick < TICKS; ++tick ) {
+      arrive(random, arrivals, waiting::add);
+      int answering = 0;
+      for( var e : bank.bank ) {
+        if( e.getElevatorState().hasRequest(lobbyCall) ) answering += CAPACITY - riding[e.getId()];
+      }
+      while( answering < waiting.size() ) {
+        var cheapest = bank.bank.stream()
+            .filter(e -> riding[e.getId()] < CAPACITY && !e.getElevatorState().hasRequest(lobbyCall))
+            .min(Comparator.comparingDouble(e -> Elevator.calcBidCostRequest(lobbyCall, e.getElevatorState())));
+        if( cheapest.isEmpty() ) break;
+        cheapest.get().assignRequest(lobbyCall);
+        answering += CAPACITY - riding[cheapest.get().getId()];
+      }
+
+      for( var e : bank.bank ) {
+        int car = e.getId();
+        e.step(visit -> {
+          stops[0]++;
+          Integer alighting = onBoard.get(car).remove(visit.floor().getFloor());
+          if( null != alighting ) {
+            delivered[0] += alighting;
+            riding[car] -= alighting;
+          }
+          if( !visit.floor().hasFloorNumber(lobbyCall) ) return;
+          while( riding[car] < CAPACITY && !waiting.isEmpty() ) {
+            int destination = waiting.poll();
+            onBoard.get(car).merge(destination, 1, Integer::sum);
+            riding[car]++;
+            e.assignRequest(new FloorDestination(destination));
+          }
+        });
+      }
+      riderTicks += waiting.size() + Arrays.stream(riding).sum();
+    }
+    return new Result(delivered[0], stops[0], riderTicks);
+  }
+
+  /**
+   * Riders are assigned a car as they arrive, or wait for one with room.
+   */
+  private static Result destination(double arrivals, double stopPenalty) {
+    var random = new Random(42);
+    var bank = new ElevatorBank(ELEVATORS, FLOORS);
+    bank.setDestinationDispatch(CAPACITY, stopPenalty);
+    Deque<DestinationRequest> unassigned = new ArrayDeque<>();
+    long assigned = 0, riderTicks = 0;
+    long[] stops = { 0 };
+
+    for( long tick = 0; tick < TICKS; ++tick ) {
+      arrive(random, arrivals, destination -> unassigned.add(new DestinationRequest(FLOORS.min(), destination)));
+      while( !unassigned.isEmpty() && -1 != bank.assign(unassigned.peek()) ) {
+        unassigned.poll();
+        assigned++;
+      }
+
+      bank.bank.forEach(e -> e.step(visit -> stops[0]++));
+      riderTicks += unassigned.size() + riding(bank);
+    }
+    return new Result(assigned - riding(bank), stops[0], riderTicks);
+  }
+
+  private static long riding(ElevatorBank bank) {
+    return bank.bank.stream().mapToInt(Elevator::getNumRiders).sum();
+  }
+
+  private static void arrive(Random random, double arrivals, IntConsumer rider) {
+    // Poisson arrivals per tick
+    double limit = Math.exp(-arrivals), product = random.nextDouble();
+    while( product > limit ) {
+      rider.accept(FLOORS.min() + 1 + random.nextInt(FLOORS.getNumFloors()));
+      product *= random.nextDouble();
+    }
+  }
+}
@@ -1,8 +1,20 @@
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ElevatorBankTest {
 
@@ -48,6 +60,263 @@ public class ElevatorBankTest {
     assertEquals(3, elevatorMoves(results));
   }
 
+  @Test
+  void testAddRequestMixedFloorLimits() {
+    var bank = new ElevatorBank(List.of(
+        new FloorLimits(0, 20),
+        new FloorLimits(0, 20),
+        new FloorLimits(20, 60)));
+
+    assertEquals(1, bank.addRequest(new FloorDestination(40, Direction.DOWN)));
+    assertEquals(1, bank.addRequest(new FloorDestination(5, Direction.UP)));
+    assertEquals(1, bank.addRequest(new FloorDestination(20, Direction.DOWN)));
+    assertEquals(0, bank.addRequest(new FloorDestination(61, Direction.DOWN)));
+
+    var results = bank.runBank();
+    assertTrue(results.getLast().contains("40"));
+    assertFalse(results.getLast().contains("5"));
+    assertEquals(3, elevatorMoves(results));
+  }
+
+  @Test
+  void testPriorityRequestServedOnce() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 20));
+    var fire = new FloorDestination(5, Direction.REST, 2);
+
+    assertEquals(1, bank.addRequest(fire));
+    // a peer has it, even though its priority makes its bid the highest
+    assertEquals(0, bank.addRequest(new FloorDestination(5, Direction.REST, 2)));
+    assertEquals(1, bank.addRequest(new FloorDestination(5, Direction.REST, 3)));
+  }
+
+  @Test
+  void testHasRequest() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 20));
+    var call = new FloorDestination(5, Direction.UP);
+    assertFalse(bank.hasRequest(call));
+    assertEquals(1, bank.addRequest(call));
+    // a second rider pressing the button
+    assertEquals(0, bank.addRequest(new FloorDestination(5, Direction.UP)));
+    assertTrue(bank.hasRequest(call));
+    assertFalse(bank.hasRequest(new FloorDestination(5, Direction.REST, 1)));
+    assertFalse(bank.hasRequest(new FloorDestination(21, Direction.DOWN)));
+  }
+
+  @Test
+  void testRecallBank() {
+    var bank = new ElevatorBank(List.of(
+        new FloorLimits(-10, 10),
+        new FloorLimits(-10, 10),
+        new FloorLimits(15, 20)));
+    bank.addRequest(new FloorDestination(10, Direction.DOWN));
+    bank.addRequest(new FloorDestination(-10, Direction.UP));
+
+    assertThrows(IllegalArgumentException.class, () -> bank.recall(new FloorDestination(0)));
+    assertEquals(2, bank.recall(new FloorDestination(0, Direction.REST, 10)));
+    assertEquals(0, bank.addRequest(new FloorDestination(3, Direction.UP)));
+
+    bank.step();
+    var visits = bank.runBank();
+    assertEquals(List.of(List.of(), List.of(), List.of()), visits);
+
+    assertEquals(2, bank.endRecall());
+    assertEquals(2, elevatorMoves(bank.runBank()));
+  }
+
+  @Test
+  void testRecallOneCar() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 30));
+    var recalled = bank.bank.getFirst();
+    assertTrue(recalled.recall(new FloorDestination(0, Direction.REST, 10)));
+    bank.bank.getLast().assignRequest(new FloorDestination(10));
+    bank.runBank();
+
+    // idle at the recall floor, it'd be the lowest bidder if it could take calls
+    assertEquals(1, bank.addRequest(new FloorDestination(1, Direction.UP)));
+    assertEquals(List.of(List.of(), List.of("1")), bank.runBank());
+    assertTrue(bank.bank.getLast().getKnownElevatorStates().isRecalled(recalled.getId()));
+  }
+
+  @Test
+  void testReassign() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 20));
+    for( int floor = 10; floor <= 13; ++floor ) {
+      bank.bank.getFirst().assignRequest(new FloorDestination(floor, Direction.UP));
+    }
+
+    // moves the calls that gain most, up to an even share
+    assertEquals(0, bank.reassign(10));
+    assertEquals(2, bank.reassign(1));
+    assertEquals(0, bank.reassign(1));
+    assertEquals(List.of(List.of("10", "11"), List.of("12", "13")), bank.runBank());
+  }
+
+  @Test
+  void testReassignKeepsDropOff() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 20));
+    var first = bank.bank.getFirst();
+    first.assignRequest(new FloorDestination(10, Direction.DOWN));
+    first.assignRequest(new DestinationRequest(0, 10));
+    bank.bank.getLast().assignRequest(new FloorDestination(9));
+    bank.step();
+    assertEquals(1, first.getNumRiders());
+
+    // the call moves to the closer car, but the rider's still let off
+    assertEquals(1, bank.reassign(1));
+    assertEquals(List.of(List.of("10"), List.of("10")), bank.runBank());
+    assertEquals(0, first.getNumRiders());
+    assertEquals(0, first.getElevatorState().load());
+  }
+
+  @Test
+  void testCentralAssignmentOnStep() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 20));
+    bank.bank.getFirst().assignRequest(new FloorDestination(10, Direction.UP));
+    bank.bank.getFirst().assignRequest(new FloorDestination(19, Direction.DOWN));
+    bank.bank.getFirst().assignRequest(new FloorDestination(2));
+    assertThrows(IllegalArgumentException.class, () -> bank.setCentralAssignment(-1, 0));
+
+    bank.setCentralAssignment(1, 1);
+    assertEquals(2, bank.step());
+    assertTrue(bank.bank.getLast().getElevatorState().currentFloor().hasFloorNumber(19));
+    // button presses stay put
+    assertEquals(List.of(List.of("10"), List.of()), bank.runBank());
+  }
+
+  @Test
+  void testAssignDestinationGroupsStops() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 20));
+    assertThrows(IllegalArgumentException.class, () -> bank.setDestinationDispatch(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> bank.setDestinationDispatch(1, -1));
+    bank.setDestinationDispatch(3, ElevatorBank.DEFAULT_STOP_PENALTY);
+
+    // same destination shares the stop, until the car is full
+    assertEquals(0, bank.assign(new DestinationRequest(0, 12)));
+    assertEquals(0, bank.assign(new DestinationRequest(0, 12)));
+    assertEquals(0, bank.assign(new DestinationRequest(0, 13)));
+    assertEquals(1, bank.assign(new DestinationRequest(0, 12)));
+    assertEquals(-1, bank.assign(new DestinationRequest(0, 21)));
+
+    assertEquals(List.of(List.of("0", "12", "13"), List.of("0", "12")), bank.runBank());
+  }
+
+  @Test
+  void testAssignDestinationUpToCapacity() {
+    var bank = new ElevatorBank(1, new FloorLimits(0, 10), 2);
+    assertEquals(0, bank.assign(new DestinationRequest(3, 5)));
+    assertEquals(0, bank.assign(new DestinationRequest(3, 6)));
+    assertEquals(-1, bank.assign(new DestinationRequest(3, 7)));
+  }
+
+  @Test
+  void testFullElevatorDoesNotBid() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 20), 2);
+    var full = bank.bank.getFirst();
+    full.board(2);
+
+    // the full elevator is nearest, and would otherwise win
+    assertEquals(1, bank.addRequest(new FloorDestination(1, Direction.UP)));
+    assertTrue(bank.bank.getLast().getElevatorState().hasRequest(new FloorDestination(1)));
+    assertFalse(full.getElevatorState().hasRequest(new FloorDestination(1)));
+  }
+
+  @Test
+  void testDeterministicSameSeedSameRoutes() {
+    assertEquals(deterministicRun(7), deterministicRun(7));
+  }
+
+  @Test
+  void testDeterministicTimestamps() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 10));
+    bank.setDeterministic(1, new SteppingClock(Instant.EPOCH, Duration.ofSeconds(1), ZoneOffset.UTC));
+
+    var first = bank.bank.getFirst().getElevatorState().created();
+    var second = bank.bank.getLast().getElevatorState().created();
+    assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0, 0), first);
+    assertEquals(first.plusSeconds(1), second);
+    assertThrows(IllegalArgumentException.class,
+        () -> new SteppingClock(Instant.EPOCH, Duration.ZERO, ZoneOffset.UTC));
+  }
+
+  @Test
+  void testDeterministicPeerStatesMerged() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 10));
+    bank.setDeterministic(1);
+    assertTrue(bank.bank.getFirst().getElevatorState().created().isAfter(LocalDateTime.of(1970, 1, 1, 0, 0)));
+
+    // the first gossip exchange merges each car's first state into the other's view
+    assertEquals(1, bank.addRequest(new FloorDestination(5, Direction.UP)));
+    for( var e : bank.bank ) {
+      var view = e.getKnownElevatorStates();
+      assertEquals(2, view.known());
+      assertTrue(view.hasRequest(0, new FloorDestination(5, Direction.UP))
+          || view.hasRequest(1, new FloorDestination(5, Direction.UP)));
+    }
+  }
+
+  /**
+   * Trace of a run:  elevators accepting each request, and where every elevator
+   * is after each step, then the rest of the routes.
+   */
+  private static List<String> deterministicRun(long seed) {
+    var random = new Random(seed);
+    var bank = new ElevatorBank(6, new FloorLimits(0, 30), 8);
+    bank.setDeterministic(seed);
+    bank.setCentralAssignment(5, 1);
+
+    List<String> trace = new ArrayList<>();
+    for( int tick = 0; tick < 200; ++tick ) {
+      var request = new FloorDestination(random.nextInt(31), random.nextBoolean() ? Direction.UP : Direction.DOWN);
+      int accepted = bank.addRequest(request);
+      var holders = bank.bank.stream().filter(e -> e.getElevatorState().hasRequest(request)).map(Elevator::getId).toList();
+      trace.add(accepted + " " + holders);
+      bank.assign(new DestinationRequest(0, 1 + random.nextInt(30)));
+
+      bank.step();
+      bank.bank.forEach(e -> trace.add(e.getElevatorState().currentFloor().floorAsString()));
+    }
+    bank.runBank().forEach(route -> trace.add(route.toString()));
+    return trace;
+  }
+
+  @Test
+  void testStreamBankPublishesEvents() throws InterruptedException {
+    var received = new ArrayList<ElevatorEvent>();
+    var done = new CountDownLatch(1);
+    try( var bank = new ElevatorBank(2, new FloorLimits(-10, 10)) ) {
+      bank.events().subscribe(new Flow.Subscriber<>() {
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+          this.subscription = subscription;
+          subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ElevatorEvent item) {
+          received.add(item);
+          subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) { done.countDown(); }
+
+        @Override
+        public void onComplete() { done.countDown(); }
+      });
+
+      bank.addRequest(new FloorDestination(10, Direction.DOWN));
+      bank.addRequest(new FloorDestination(-10, Direction.UP));
+      bank.streamBank();
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(4, received.size());
+    assertEquals(2, received.stream().filter(e -> e.type() == ElevatorEvent.Type.ASSIGNMENT).count());
+    assertEquals(2, received.stream().filter(e -> e.type() == ElevatorEvent.Type.VISIT).count());
+  }
+
   static int elevatorMoves(List<List<String>> runResults) {
     return runResults.stream().flatMap(List::stream).toList().size();
   }
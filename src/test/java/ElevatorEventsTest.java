@@ -0,0 +1,73 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the JFR events are emitted, by parsing a recording.
+ */
+public class ElevatorEventsTest {
+
+  @Test
+  void testEventsRecorded() throws IOException {
+    var recordingFile = Files.createTempFile("elevator", ".jfr");
+    try( var recording = new Recording() ) {
+      recording.enable(BidRoundEvent.class);
+      recording.enable(GossipExchangeEvent.class);
+      recording.enable(RequestDecisionEvent.class);
+      recording.enable(FloorVisitEvent.class);
+      recording.start();
+
+      var bank = new ElevatorBank(2, new FloorLimits(0, 10));
+      bank.addRequest(new FloorDestination(7, Direction.DOWN));
+      bank.bank.getFirst().addRequest(new FloorDestination(11, Direction.DOWN));
+      bank.runBank();
+
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+
+    List<RecordedEvent> events;
+    try {
+      events = RecordingFile.readAllEvents(recordingFile);
+    } finally {
+      Files.delete(recordingFile);
+    }
+
+    Set<String> names = events.stream()
+        .map(e -> e.getEventType().getName())
+        .collect(Collectors.toSet());
+    assertTrue(names.containsAll(Set.of(
+        "elevator.BidRound",
+        "elevator.GossipExchange",
+        "elevator.RequestDecision",
+        "elevator.FloorVisit")));
+
+    var visit = events.stream()
+        .filter(e -> e.getEventType().getName().equals("elevator.FloorVisit"))
+        .findFirst()
+        .orElseThrow();
+    assertEquals(7, visit.getInt("floor"));
+    assertEquals("UP", visit.getString("direction"));
+
+    var decisions = events.stream()
+        .filter(e -> e.getEventType().getName().equals("elevator.RequestDecision"))
+        .toList();
+    assertEquals(3, decisions.size());
+    assertEquals(1, decisions.stream().filter(e -> e.getBoolean("accepted")).count());
+    assertTrue(decisions.stream().anyMatch(e -> "outside floor limits".equals(e.getString("reason"))));
+
+    // each exchange sends the bank's 2 states, once both are known
+    assertTrue(events.stream()
+        .filter(e -> e.getEventType().getName().equals("elevator.GossipExchange"))
+        .allMatch(e -> e.getInt("statesSkipped") >= 0 && e.getInt("statesMerged") + e.getInt("statesSkipped") <= 2));
+  }
+}
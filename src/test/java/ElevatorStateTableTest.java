@@ -0,0 +1,188 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElevatorStateTableTest {
+
+  private static final FloorLimits FLOORS = new FloorLimits(-5, 100);
+
+  private static ElevatorState state(int id, int floor, Direction direction, int prioritySize, Set<FloorDestination> requests) {
+    return new ElevatorState(id, new FloorDestination(floor), direction, prioritySize, requests.size(), FLOORS.getNumFloors(), requests);
+  }
+
+  private static ElevatorState at(int id, LocalDateTime created) {
+    return new ElevatorState(id, new FloorDestination(id), Direction.REST, 0, 0, FLOORS.getNumFloors(), Set.of(), 0, 1, false, created);
+  }
+
+  @Test
+  void testMergeReadsInPlace() {
+    var table = new ElevatorStateTable(3, FLOORS);
+    var state = state(7, 12, Direction.UP, 0, Set.of(
+        new FloorDestination(-5, Direction.UP),
+        new FloorDestination(63),
+        new FloorDestination(64, Direction.DOWN),
+        new FloorDestination(100),
+        new FloorDestination(40, Direction.REST, 3)));
+
+    assertFalse(table.isKnown(1));
+    assertTrue(table.merge(1, state));
+    assertTrue(table.isKnown(1));
+    assertFalse(table.merge(1, state));
+    assertEquals(7, table.id(1));
+    assertEquals(12, table.floor(1));
+    assertEquals(Direction.UP, table.direction(1));
+    for( int floor = FLOORS.min(); floor <= FLOORS.max(); ++floor ) {
+      var request = new FloorDestination(floor);
+      assertEquals(state.hasRequest(request), table.hasRequest(1, request), "floor " + floor);
+    }
+    assertTrue(table.hasRequest(1, new FloorDestination(40, Direction.UP, 3)));
+    assertFalse(table.hasRequest(1, new FloorDestination(40, Direction.REST, 2)));
+    assertFalse(table.hasRequest(1, new FloorDestination(101)));
+    assertFalse(table.hasRequest(0, new FloorDestination(63)));
+  }
+
+  @Test
+  void testBidCostSameAsElevator() {
+    var table = new ElevatorStateTable(7, FLOORS);
+    ElevatorState[] states = {
+        state(0, 10, Direction.REST, 0, Set.of()),
+        state(1, 3, Direction.UP, 0, Set.of(new FloorDestination(8))),
+        state(2, 30, Direction.DOWN, 0, Set.of(new FloorDestination(20), new FloorDestination(2))),
+        state(3, 5, Direction.UP, 2, Set.of()),
+        new ElevatorState(4, new FloorDestination(6), Direction.UP, 0, 0, FLOORS.getNumFloors(), Set.of(), 3, 6),
+        new ElevatorState(5, new FloorDestination(5), Direction.REST, 0, 0, FLOORS.getNumFloors(), Set.of(), 6, 6),
+        new ElevatorState(6, new FloorDestination(5), Direction.REST, 0, 0, FLOORS.getNumFloors(), Set.of(), 0, 6, true, null) };
+    for( int slot = 0; slot < states.length; ++slot ) table.merge(slot, states[slot]);
+    assertTrue(table.isRecalled(6));
+    assertFalse(table.isRecalled(5));
+
+    for( var request : new FloorDestination[] {
+        new FloorDestination(5, Direction.UP), new FloorDestination(25, Direction.DOWN), new FloorDestination(10),
+        new FloorDestination(5, Direction.REST, 1) } ) {
+      int lowest = 0;
+      for( int slot = 0; slot < states.length; ++slot ) {
+        double expected = Elevator.calcBidCostRequest(request, states[slot]);
+        assertEquals(expected, table.bidCost(slot, request));
+        if( expected < Elevator.calcBidCostRequest(request, states[lowest]) ) lowest = slot;
+      }
+      assertEquals(lowest, table.lowestBidder(request));
+    }
+    assertEquals(-1, new ElevatorStateTable(2, FLOORS).lowestBidder(new FloorDestination(1)));
+  }
+
+  @Test
+  void testEpochVersions() {
+    var table = new ElevatorStateTable(3, FLOORS);
+    var epoch = LocalDateTime.of(1970, 1, 1, 0, 0);
+    assertTrue(table.merge(0, at(0, epoch)));
+    assertTrue(table.merge(1, at(1, epoch.minusYears(10))));
+    assertTrue(table.merge(2, at(2, LocalDateTime.MIN)));
+    assertEquals(3, table.known());
+    assertFalse(table.merge(0, at(0, epoch)));
+    assertFalse(table.merge(1, at(1, epoch.minusYears(11))));
+    assertTrue(table.merge(1, at(1, epoch.minusYears(9))));
+
+    var peer = new ElevatorStateTable(3, FLOORS);
+    assertEquals(3, peer.merge(table));
+    assertEquals(0, peer.merge(table));
+    assertEquals(3, peer.known());
+    assertEquals(1, peer.lowestBidder(new FloorDestination(1)));
+  }
+
+  @Test
+  void testMergeTables() throws InterruptedException {
+    var table = new ElevatorStateTable(2, FLOORS);
+    var peer = new ElevatorStateTable(2, FLOORS);
+    table.merge(0, state(0, 1, Direction.REST, 0, Set.of()));
+    peer.merge(1, state(1, 2, Direction.REST, 0, Set.of(new FloorDestination(9))));
+    Thread.sleep(2);
+    peer.merge(0, state(0, 4, Direction.UP, 0, Set.of(new FloorDestination(6))));
+
+    // newer slots only
+    assertEquals(2, table.merge(peer));
+    assertEquals(0, table.merge(peer));
+    assertEquals(0, peer.merge(table));
+    assertEquals(4, table.floor(0));
+    assertTrue(table.hasRequest(0, new FloorDestination(6)));
+    assertTrue(table.hasRequest(1, new FloorDestination(9)));
+  }
+
+  @Test
+  void testPriorityRequestsKept() {
+    var table = new ElevatorStateTable(1, FLOORS);
+    Set<FloorDestination> requests = new LinkedHashSet<>();
+    for( int priority = 1; priority <= ElevatorStateTable.MAX_PRIORITY_REQUESTS + 1; ++priority ) {
+      requests.add(new FloorDestination(priority, Direction.REST, priority));
+    }
+    table.merge(0, state(0, 1, Direction.UP, requests.size(), requests));
+
+    // the rest are only counted
+    for( var request : requests ) {
+      assertEquals(request.getPriority() <= ElevatorStateTable.MAX_PRIORITY_REQUESTS, table.hasRequest(0, request));
+    }
+  }
+
+  @Test
+  void testPutAndCopy() {
+    var table = new ElevatorStateTable(3, FLOORS);
+    var state = state(2, 1, Direction.REST, 0, Set.of(new FloorDestination(9)));
+    table.put(2, state);
+    // whatever the version
+    table.put(2, state(2, 5, Direction.UP, 0, Set.of()));
+    assertEquals(1, table.known());
+
+    var copy = table.copy();
+    table.put(0, state);
+    assertEquals(1, copy.known());
+    assertEquals(5, copy.floor(2));
+    assertFalse(copy.hasRequest(2, new FloorDestination(9)));
+    assertEquals(table.byteSize(), copy.byteSize());
+    assertEquals(1, copy.merge(table));
+    assertEquals(1, copy.floor(0));
+
+    // reused, as a snapshot
+    assertTrue(copy.copyFrom(new ElevatorStateTable(3, FLOORS)));
+    assertEquals(0, copy.known());
+    assertFalse(copy.copyFrom(new ElevatorStateTable(2, FLOORS)));
+    assertFalse(copy.copyFrom(new ElevatorStateTable(3, new FloorLimits(0, 100))));
+  }
+
+  @Test
+  void testPutFieldByField() {
+    var requests = new LinkedHashSet<FloorDestination>();
+    requests.add(new FloorDestination(30, Direction.REST, 2));
+    requests.add(new FloorDestination(-5, Direction.UP));
+    requests.add(new FloorDestination(70));
+    var state = new ElevatorState(1, new FloorDestination(12), Direction.DOWN, 1, 2, FLOORS.getNumFloors(), requests, 3, 8, false, null);
+    var table = new ElevatorStateTable(2, FLOORS);
+    table.put(0, state);
+    table.put(1, 1, 12, Direction.DOWN, 1, 2, FLOORS.getNumFloors(), 3, 8, false, state.created());
+    for( var request : requests ) table.addRequest(1, request);
+    // already there
+    table.addRequest(1, new FloorDestination(30, Direction.REST, 2));
+    assertThrows(IllegalArgumentException.class, () -> table.addRequest(1, new FloorDestination(101)));
+
+    assertEquals(table.version(0), table.version(1));
+    for( var request : new FloorDestination[] {
+        new FloorDestination(30, Direction.REST, 2), new FloorDestination(70), new FloorDestination(-5), new FloorDestination(9, Direction.UP) } ) {
+      assertEquals(table.hasRequest(0, request), table.hasRequest(1, request));
+      assertEquals(table.bidCost(0, request), table.bidCost(1, request));
+    }
+  }
+
+  @Test
+  void testInvalid() {
+    var table = new ElevatorStateTable(1, FLOORS);
+    assertThrows(IllegalArgumentException.class, () -> new ElevatorStateTable(-1, FLOORS));
+    assertThrows(IllegalArgumentException.class, () -> new ElevatorStateTable(Integer.MAX_VALUE, FLOORS));
+    assertThrows(IllegalArgumentException.class, () -> table.merge(new ElevatorStateTable(2, FLOORS)));
+    assertThrows(IllegalArgumentException.class, () -> table.merge(new ElevatorStateTable(1, new FloorLimits(0, 100))));
+    assertThrows(IllegalArgumentException.class,
+        () -> table.merge(0, state(0, 1, Direction.REST, 0, Set.of(new FloorDestination(101)))));
+    assertThrows(IndexOutOfBoundsException.class, () -> table.floor(1));
+  }
+}
@@ -1,7 +1,9 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -67,6 +69,140 @@ public class ElevatorTest {
     }
   }
 
+  @Test
+  void testRecallPreempts() {
+    assertTrue(elevator.recall(new FloorDestination(7, Direction.DOWN, 10)));
+    assertTrue(elevator.isRecalled());
+    assertFalse(elevator.addRequest(new FloorDestination(2)));
+
+    var nextFloor = elevator.nextFloor();
+    assertTrue(nextFloor.isPresent());
+    assertTrue(nextFloor.get().hasFloorNumber(7));
+    assertTrue(elevator.nextFloor().isEmpty());
+  }
+
+  @Test
+  void testRecallInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> elevator.recall(new FloorDestination(7)));
+    assertTrue(elevator.recall(new FloorDestination(7, Direction.DOWN, 10)));
+    assertFalse(elevator.recall(new FloorDestination(8, Direction.DOWN, 10)));
+
+    var smallElevator = new Elevator(1, new FloorLimits(0, 1));
+    assertFalse(smallElevator.recall(new FloorDestination(7, Direction.DOWN, 10)));
+  }
+
+  @Test
+  void testEndRecallRestores() {
+    elevator.recall(new FloorDestination(7, Direction.DOWN, 10));
+    elevator.nextFloor();
+    assertTrue(elevator.endRecall());
+    assertFalse(elevator.endRecall());
+
+    var floorRun = elevator.run();
+    assertEquals(floorOrder.size(), floorRun.size());
+    assertTrue(floorRun.containsAll(List.of("1", "3", "5")));
+  }
+
+  @Test
+  void testAssignAndRemoveRequest() {
+    assertTrue(elevator.removeRequest(new FloorDestination(3)));
+    assertFalse(elevator.removeRequest(new FloorDestination(3)));
+    assertTrue(elevator.assignRequest(new FloorDestination(4, Direction.UP)));
+
+    var smallElevator = new Elevator(1, new FloorLimits(0, 1));
+    assertFalse(smallElevator.assignRequest(new FloorDestination(7, Direction.UP)));
+
+    assertEquals(List.of("1", "4", "5"), elevator.run());
+  }
+
+  @Test
+  void testAssignDestinationRequest() {
+    var ddElevator = new Elevator(1, new FloorLimits(0, 10));
+    assertTrue(ddElevator.assignRequest(new DestinationRequest(2, 5)));
+    assertTrue(ddElevator.assignRequest(new DestinationRequest(2, 3)));
+    assertTrue(ddElevator.assignRequest(new DestinationRequest(4, 1)));
+    assertFalse(ddElevator.assignRequest(new DestinationRequest(4, 11)));
+    assertThrows(IllegalArgumentException.class, () -> new DestinationRequest(4, 4));
+
+    assertEquals(3, ddElevator.getNumRiders());
+    assertEquals(Set.of(1, 2, 3, 4, 5), ddElevator.plannedStops());
+    // pickups aren't given up
+    assertFalse(ddElevator.removeRequest(new FloorDestination(2, Direction.UP)));
+
+    // destinations are only queued once riders board
+    assertEquals(List.of("2", "3", "4", "5", "1"), ddElevator.run());
+    assertEquals(0, ddElevator.getNumRiders());
+  }
+
+  @Test
+  void testAssignDestinationOverCapacity() {
+    var car = new Elevator(1, new FloorLimits(0, 10), 2);
+    for( int destination = 5; destination <= 7; ++destination ) {
+      assertTrue(car.assignRequest(new DestinationRequest(3, destination)));
+    }
+
+    // the third rider is left waiting until there's room
+    List<String> visits = new ArrayList<>();
+    while( car.step(visit -> visits.add(visit.floor().floorAsString())) ) {
+      assertTrue(car.getLoad() <= car.getCapacity());
+      if( visits.equals(List.of("3")) ) {
+        assertEquals(2, car.getLoad());
+        assertEquals(3, car.getNumRiders());
+        assertTrue(car.plannedStops().contains(3));
+      }
+    }
+    assertEquals(List.of("3", "5", "6", "3", "7"), visits);
+    assertEquals(0, car.getLoad());
+    assertEquals(0, car.getNumRiders());
+  }
+
+  @Test
+  void testSetElevatorBankUniqueIds() {
+    var first = new Elevator(1, new FloorLimits(0, 10));
+    var second = new Elevator(-1, new FloorLimits(0, 10));
+    var third = new Elevator(2, new FloorLimits(0, 10));
+
+    assertThrows(IllegalArgumentException.class, () -> first.setElevatorBank(List.of(first, second)));
+    assertThrows(IllegalArgumentException.class, () -> third.setElevatorBank(List.of(first, third, first)));
+    assertThrows(IllegalArgumentException.class, () -> first.setElevatorBank(List.of()));
+    first.setElevatorBank(List.of(first, third));
+  }
+
+  @Test
+  void testBoardAndAlight() {
+    var car = new Elevator(1, new FloorLimits(0, 10), 4);
+    assertEquals(4, car.getCapacity());
+    assertEquals(3, car.board(3));
+    assertEquals(1, car.board(3));
+    assertTrue(car.isFull());
+    assertEquals(4, car.getElevatorState().load());
+    assertTrue(car.getElevatorState().isFull());
+
+    assertEquals(2, car.alight(2));
+    assertEquals(2, car.alight(5));
+    assertEquals(0, car.getLoad());
+    assertThrows(IllegalArgumentException.class, () -> car.board(-1));
+    assertThrows(IllegalArgumentException.class, () -> new Elevator(1, new FloorLimits(0, 10), 0));
+  }
+
+  @Test
+  void testFullRejectsHallCalls() {
+    var car = new Elevator(1, new FloorLimits(0, 10), 1);
+    car.board(1);
+    assertFalse(car.addRequest(new FloorDestination(4, Direction.UP)));
+    // passengers' button presses, and priority requests, are still taken
+    assertTrue(car.addRequest(new FloorDestination(5)));
+    assertTrue(car.addRequest(new FloorDestination(6, Direction.UP, 2)));
+  }
+
+  @Test
+  void testEndRecallBeforeRecallFloor() {
+    elevator.recall(new FloorDestination(7, Direction.DOWN, 10));
+    elevator.endRecall();
+
+    assertEquals(List.of("1", "3", "5"), elevator.run());
+  }
+
   @Test
   void testCalcBidCostAtRest() {
     var floor = new FloorDestination(1);
@@ -144,6 +280,20 @@ public class ElevatorTest {
     assertTrue(morePriority > lessPriority );
   }
 
+  @Test
+  void testCalcBidCostLoad() {
+    var request = new FloorDestination(5, Direction.UP);
+    var floor = new FloorDestination(1);
+    var empty = new ElevatorState(1, floor, Direction.UP, 0, 1, 10, Set.of(), 0, 8);
+    var half = new ElevatorState(1, floor, Direction.UP, 0, 1, 10, Set.of(), 4, 8);
+    var full = new ElevatorState(1, floor, Direction.UP, 0, 1, 10, Set.of(), 8, 8);
+
+    assertTrue(Elevator.calcBidCostRequest(request, empty) < Elevator.calcBidCostRequest(request, half));
+    assertEquals(Double.POSITIVE_INFINITY, Elevator.calcBidCostRequest(request, full));
+    assertTrue(Double.isFinite(Elevator.calcBidCostRequest(new FloorDestination(5), full)));
+    assertTrue(Double.isFinite(Elevator.calcBidCostRequest(new FloorDestination(5, Direction.UP, 1), full)));
+  }
+
   @Test
   void testCalcBidCostAtFloor() {
     var floor = new FloorDestination(1);
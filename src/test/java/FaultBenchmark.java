@@ -0,0 +1,145 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks gossip under network faults (see {@link FaultyNetwork}) by drop
+ * rate, delay and a partition (switch failure) that splits the bank in half
+ * part way through, then heals.  Reports how often a request is double-served
+ * (accepted by more than one elevator) or missed (accepted by none, and retried
+ * each tick until accepted), assignment latency, and time for a new request to
+ * converge across every elevator's view once the partition has healed.  Times
+ * are in ticks, a tick being a bank step and a round of anti-entropy.
+ * <p>
+ * Not a test, run with:  {@code java -cp target/classes:target/test-classes FaultBenchmark}
+ */
+public class FaultBenchmark {
+
+  private static final int ELEVATORS = 8;
+  private static final FloorLimits FLOORS = new FloorLimits(0, 30);
+  private static final long TICKS = 1_000;
+  private static final double REQUESTS_PER_TICK = 0.3;
+  private static final int FAN_OUT = 2;
+  private static final long PARTITION_FROM = 300;
+  private static final long PARTITION_TO = 600;
+  private static final int CONVERGE_SAMPLES = 20;
+  private static final long MAX_CONVERGE_TICKS = 100_000;
+
+  private record Pending(FloorDestination request, long firstTick) {}
+
+  public static void main(String[] args) {
+    System.out.printf("%d elevators, floors %d to %d, %d ticks, partition ticks %d to %d%n",
+        ELEVATORS, FLOORS.min(), FLOORS.max(), TICKS, PARTITION_FROM, PARTITION_TO);
+    System.out.printf("%-6s %-6s %-6s %6s %9s %9s %8s %8s %12s %10s%n",
+        "drop", "delay", "part", "reqs", "double %", "missed %",
+        "p50 lat", "max lat", "max lat part", "p50 conv");
+
+    for( boolean partition : new boolean[] { false, true } ) {
+      for( int maxDelay : new int[] { 0, 5 } ) {
+        for( double dropRate : new double[] { 0, 0.1, 0.3, 0.5 } ) {
+          System.out.println(run(dropRate, maxDelay, partition));
+        }
+      }
+    }
+  }
+
+  private static String run(double dropRate, int maxDelay, boolean partition) {
+    var random = new Random(42);
+    var networkRandom = new Random(7);
+    var bank = new ElevatorBank(ELEVATORS, FLOORS);
+    var network = new FaultyNetwork(dropRate, () -> networkRandom.nextInt(maxDelay + 1), networkRandom);
+    if( partition ) {
+      var side = new HashSet<>(IntStream.range(0, ELEVATORS / 2).boxed().toList());
+      network.partition(PARTITION_FROM, PARTITION_TO, side);
+    }
+    bank.setGossipNetwork(network);
+
+    List<Pending> pending = new ArrayList<>();
+    List<Long> latencies = new ArrayList<>();
+    long requests = 0, doubleServed = 0, missed = 0, maxPartitionLatency = 0;
+
+    for( long tick = 0; tick < TICKS; ++tick ) {
+      if( random.nextDouble() < REQUESTS_PER_TICK ) {
+        int floor = FLOORS.min() + random.nextInt(FLOORS.getNumFloors() + 1);
+        var direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+        var request = new FloorDestination(floor, direction);
+        // same floor as work already held isn't a new request
+        if( 0 == holders(bank, request) ) {
+          pending.add(new Pending(request, tick));
+          requests++;
+        }
+      }
+
+      for( var it = pending.iterator(); it.hasNext(); ) {
+        var next = it.next();
+        int accepted = bank.addRequest(next.request());
+        if( 0 == accepted && 0 == holders(bank, next.request()) ) {
+          if( next.firstTick() == tick ) missed++;
+          continue;
+        }
+
+        if( accepted > 1 ) doubleServed++;
+        long latency = tick - next.firstTick();
+        latencies.add(latency);
+        if( PARTITION_FROM <= next.firstTick() && next.firstTick() < PARTITION_TO ) {
+          maxPartitionLatency = Math.max(maxPartitionLatency, latency);
+        }
+        it.remove();
+      }
+
+      bank.step();
+      bank.bank.forEach(e -> e.gossip(FAN_OUT));
+      network.advance();
+    }
+    // never assigned, count as latency so far
+    for( var next : pending ) latencies.add(TICKS - next.firstTick());
+
+    long[] converge = new long[CONVERGE_SAMPLES];
+    for( int i = 0; i < CONVERGE_SAMPLES; ++i ) {
+      while( bank.step() > 0 ) network.advance();
+      bank.addRequest(new FloorDestination(FLOORS.min() + random.nextInt(FLOORS.getNumFloors() + 1)));
+      while( !converged(bank) && converge[i] < MAX_CONVERGE_TICKS ) {
+        bank.bank.forEach(e -> e.gossip(FAN_OUT));
+        network.advance();
+        converge[i]++;
+      }
+    }
+    Arrays.sort(converge);
+
+    Collections.sort(latencies);
+    return String.format("%-6.2f %-6d %-6s %6d %9.2f %9.2f %8d %8d %12s %10d",
+        dropRate,
+        maxDelay,
+        partition,
+        requests,
+        100.0 * doubleServed / requests,
+        100.0 * missed / requests,
+        latencies.get(latencies.size() / 2),
+        latencies.getLast(),
+        partition ? Long.toString(maxPartitionLatency) : "n/a",
+        converge[CONVERGE_SAMPLES / 2]);
+  }
+
+  private static long holders(ElevatorBank bank, FloorDestination request) {
+    return bank.bank.stream().filter(e -> e.getElevatorState().hasRequest(request)).count();
+  }
+
+  /**
+   * If every elevator's view of each peer matches the peer's actual requests and floor.
+   */
+  private static boolean converged(ElevatorBank bank) {
+    for( var elevator : bank.bank ) {
+      var view = elevator.getKnownElevatorStates();
+      for( var peer : bank.bank ) {
+        int slot = peer.getId();
+        var actual = peer.getElevatorState();
+        if( !view.isKnown(slot) || !actual.currentFloor().hasFloorNumber(view.floor(slot)) ) return false;
+        var limits = peer.getFloorLimits();
+        for( int floor = limits.min(); floor <= limits.max(); ++floor ) {
+          var request = new FloorDestination(floor);
+          if( actual.hasRequest(request) != view.hasRequest(slot, request) ) return false;
+        }
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FaultyNetworkTest {
+
+  private ElevatorBank bank;
+  private Elevator first;
+  private Elevator second;
+
+  @BeforeEach
+  void setUp() {
+    bank = new ElevatorBank(2, new FloorLimits(0, 10));
+    first = bank.bank.getFirst();
+    second = bank.bank.getLast();
+  }
+
+  @Test
+  void testInvalidDropRate() {
+    assertThrows(IllegalArgumentException.class, () -> new FaultyNetwork(-0.1, () -> 0, new Random()));
+    assertThrows(IllegalArgumentException.class, () -> new FaultyNetwork(1.1, () -> 0, new Random()));
+  }
+
+  @Test
+  void testNoFaults() {
+    var network = new FaultyNetwork(0, () -> 0, new Random(1));
+    bank.setGossipNetwork(network);
+
+    first.gossip(1);
+
+    assertEquals(2, second.getKnownElevatorStates().known());
+    assertEquals(2, network.delivered());
+    assertEquals(0, network.dropped());
+  }
+
+  @Test
+  void testDropAll() {
+    var network = new FaultyNetwork(1, () -> 0, new Random(1));
+    bank.setGossipNetwork(network);
+
+    first.gossip(1);
+
+    assertEquals(1, second.getKnownElevatorStates().known());
+    assertEquals(2, network.dropped());
+  }
+
+  @Test
+  void testDelay() {
+    var network = new FaultyNetwork(0, () -> 2, new Random(1));
+    bank.setGossipNetwork(network);
+
+    first.gossip(1);
+    network.advance();
+    assertEquals(1, second.getKnownElevatorStates().known());
+
+    network.advance();
+    assertEquals(2, second.getKnownElevatorStates().known());
+    assertEquals(2, first.getKnownElevatorStates().known());
+  }
+
+  @Test
+  void testPartitionHeals() {
+    var network = new FaultyNetwork(0, () -> 0, new Random(1));
+    network.partition(0, 2, Set.of(first.getId()));
+    bank.setGossipNetwork(network);
+
+    assertTrue(network.isPartitioned(first, second));
+    first.gossip(1);
+    assertEquals(1, second.getKnownElevatorStates().known());
+
+    network.advance();
+    network.advance();
+    assertFalse(network.isPartitioned(first, second));
+    first.gossip(1);
+    assertEquals(2, second.getKnownElevatorStates().known());
+  }
+
+  @Test
+  void testPartitionDropsInFlight() {
+    var network = new FaultyNetwork(0, () -> 1, new Random(1));
+    network.partition(1, 5, Set.of(first.getId()));
+    bank.setGossipNetwork(network);
+
+    first.gossip(1);
+    network.advance();
+
+    assertEquals(1, second.getKnownElevatorStates().known());
+    assertEquals(2, network.dropped());
+  }
+
+  @Test
+  void testPartitionDoubleServes() {
+    var network = new FaultyNetwork(0, () -> 0, new Random(1));
+    network.partition(0, 10, Set.of(first.getId()));
+    bank.setGossipNetwork(network);
+
+    // neither side knows the other accepted it
+    assertEquals(2, bank.addRequest(new FloorDestination(5, Direction.UP)));
+  }
+}
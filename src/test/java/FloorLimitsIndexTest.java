@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FloorLimitsIndexTest {
+
+  private FloorLimits lowRise;
+  private FloorLimits highRise;
+  private FloorLimits shuttle;
+  private FloorLimitsIndex<FloorLimits> index;
+
+  @BeforeEach
+  void setUp() {
+    lowRise = new FloorLimits(-2, 30);
+    highRise = new FloorLimits(30, 60);
+    shuttle = new FloorLimits(0, 1);
+
+    index = new FloorLimitsIndex<>(List.of(lowRise, highRise, shuttle), Function.identity());
+  }
+
+  @Test
+  void testEligibleSingle() {
+    assertEquals(List.of(lowRise), index.eligible(-2));
+    assertEquals(List.of(lowRise), index.eligible(29));
+    assertEquals(List.of(highRise), index.eligible(60));
+  }
+
+  @Test
+  void testEligibleOverlap() {
+    assertEquals(List.of(lowRise, shuttle), index.eligible(0));
+    assertEquals(List.of(lowRise, shuttle), index.eligible(new FloorDestination(1, Direction.UP)));
+    assertEquals(List.of(lowRise, highRise), index.eligible(30));
+  }
+
+  @Test
+  void testEligibleNone() {
+    assertTrue(index.eligible(-3).isEmpty());
+    assertTrue(index.eligible(61).isEmpty());
+    assertTrue(index.eligible(Integer.MAX_VALUE).isEmpty());
+  }
+
+  @Test
+  void testEligibleEmptyIndex() {
+    var empty = new FloorLimitsIndex<FloorLimits>(List.of(), Function.identity());
+    assertTrue(empty.eligible(0).isEmpty());
+  }
+
+  @Test
+  void testEligibleFullRange() {
+    var all = new FloorLimits(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    var fullIndex = new FloorLimitsIndex<>(List.of(all), Function.identity());
+
+    assertEquals(List.of(all), fullIndex.eligible(Integer.MIN_VALUE));
+    assertEquals(List.of(all), fullIndex.eligible(Integer.MAX_VALUE));
+  }
+}
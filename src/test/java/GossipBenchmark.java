@@ -0,0 +1,81 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmarks request latency ({@link ElevatorBank#addRequest(FloorDestination)})
+ * and time for a request to converge across the bank's views, for synchronous
+ * gossip and background gossip at different intervals.
+ * <p>
+ * Not a test, run with:  {@code java -cp target/classes:target/test-classes GossipBenchmark}
+ */
+public class GossipBenchmark {
+
+  private static final int ELEVATORS = 16;
+  private static final FloorLimits FLOORS = new FloorLimits(0, 60);
+  private static final int REQUESTS = 2_000;
+  private static final int CONVERGENCE_SAMPLES = 20;
+  private static final int FAN_OUT = 2;
+
+  public static void main(String[] args) throws InterruptedException {
+    var out = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+    out.printf("%-12s %12s %12s %12s %16s%n",
+        "gossip", "p50 req us", "p99 req us", "max req us", "p50 converge ms");
+    out.printf("%-12s %s%n", "sync", latency(null));
+    for( var interval : new Duration[] { Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(20) } ) {
+      out.printf("%-12s %s%n", interval.toMillis() + " ms", latency(interval));
+    }
+  }
+
+  private static String latency(Duration interval) throws InterruptedException {
+    var random = new Random(42);
+    var bank = new ElevatorBank(ELEVATORS, FLOORS);
+    var gossip = null == interval ? null : bank.startGossip(interval, FAN_OUT);
+
+    try {
+      long[] requestNanos = new long[REQUESTS];
+      for( int i = 0; i < REQUESTS; ++i ) {
+        var request = randomRequest(random);
+        long start = System.nanoTime();
+        bank.addRequest(request);
+        requestNanos[i] = System.nanoTime() - start;
+
+        // keep queues from growing without bound
+        if( 0 == i % 100 ) bank.streamBank();
+      }
+      Arrays.sort(requestNanos);
+
+      String convergence = "n/a";
+      if( null != gossip ) {
+        long[] convergeNanos = new long[CONVERGENCE_SAMPLES];
+        for( int i = 0; i < CONVERGENCE_SAMPLES; ++i ) {
+          bank.streamBank();
+          var request = randomRequest(random);
+          long start = System.nanoTime();
+          bank.addRequest(request);
+          GossipSchedulerTest.awaitConverged(bank.bank, request, Duration.ofSeconds(10));
+          convergeNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(convergeNanos);
+        convergence = String.format("%.2f", convergeNanos[CONVERGENCE_SAMPLES / 2] / 1e6);
+      }
+
+      return String.format("%12.1f %12.1f %12.1f %16s",
+          requestNanos[REQUESTS / 2] / 1e3,
+          requestNanos[(int) (REQUESTS * 0.99)] / 1e3,
+          requestNanos[REQUESTS - 1] / 1e3,
+          convergence);
+    } finally {
+      if( null != gossip ) gossip.close();
+    }
+  }
+
+  private static FloorDestination randomRequest(Random random) {
+    int floor = FLOORS.min() + random.nextInt(FLOORS.getNumFloors() + 1);
+    return new FloorDestination(floor, random.nextBoolean() ? Direction.UP : Direction.DOWN);
+  }
+}
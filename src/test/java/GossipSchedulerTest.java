@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GossipSchedulerTest {
+
+  @Test
+  void testInvalidArguments() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 10));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> new GossipScheduler(bank.bank, Duration.ZERO, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new GossipScheduler(bank.bank, Duration.ofMillis(1), 0));
+  }
+
+  @Test
+  void testRequestConverges() throws InterruptedException {
+    var bank = new ElevatorBank(6, new FloorLimits(0, 10));
+    var request = new FloorDestination(7, Direction.DOWN);
+
+    try( var gossip = bank.startGossip(Duration.ofMillis(1), 1) ) {
+      assertTrue(awaitFullView(bank.bank, Duration.ofSeconds(5)));
+      assertTrue(gossip.rounds() > 0);
+
+      assertEquals(1, bank.addRequest(request));
+      assertTrue(awaitConverged(bank.bank, request, Duration.ofSeconds(5)));
+    }
+  }
+
+  @Test
+  void testKnownRequestNotAcceptedAgain() throws InterruptedException {
+    var bank = new ElevatorBank(3, new FloorLimits(0, 10));
+    var request = new FloorDestination(7, Direction.DOWN);
+
+    try( var gossip = bank.startGossip(Duration.ofMillis(1), 2) ) {
+      assertTrue(awaitFullView(bank.bank, Duration.ofSeconds(5)));
+      assertTrue(gossip.rounds() > 0);
+      assertEquals(1, bank.addRequest(request));
+      assertTrue(awaitConverged(bank.bank, request, Duration.ofSeconds(5)));
+      assertEquals(0, bank.addRequest(request));
+    }
+  }
+
+  @Test
+  void testRunAfterClose() {
+    var bank = new ElevatorBank(2, new FloorLimits(0, 10));
+    bank.startGossip(Duration.ofMillis(1), 1).close();
+
+    bank.addRequest(new FloorDestination(3, Direction.UP));
+    assertEquals(1, ElevatorBankTest.elevatorMoves(bank.runBank()));
+  }
+
+  static boolean awaitConverged(List<Elevator> elevators,
+                                FloorDestination request,
+                                Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while( System.nanoTime() < deadline ) {
+      var holders = holders(elevators, request);
+      if( elevators.stream().allMatch(e -> holders.equals(knownHolders(e, request))) ) return true;
+      Thread.sleep(1);
+    }
+    return false;
+  }
+
+  static boolean awaitFullView(List<Elevator> elevators,
+                               Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while( System.nanoTime() < deadline ) {
+      if( elevators.stream()
+          .allMatch(e -> e.getKnownElevatorStates().known() == elevators.size()) ) return true;
+      Thread.sleep(1);
+    }
+    return false;
+  }
+
+  static Set<Integer> holders(List<Elevator> elevators, FloorDestination request) {
+    return elevators.stream()
+        .map(Elevator::getElevatorState)
+        .filter(state -> state.hasRequest(request))
+        .map(ElevatorState::id)
+        .collect(Collectors.toSet());
+  }
+
+  static Set<Integer> knownHolders(Elevator elevator, FloorDestination request) {
+    var view = elevator.getKnownElevatorStates();
+    return IntStream.range(0, view.size())
+        .filter(slot -> view.isKnown(slot) && view.hasRequest(slot, request))
+        .map(view::id)
+        .boxed()
+        .collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadDriverTest {
+
+  @Test
+  void testParseDefaults() {
+    var options = LoadDriver.Options.parse();
+    assertEquals(8, options.elevators());
+    assertEquals(new FloorLimits(0, 30), options.floors());
+    assertEquals(TrafficProfile.UP_PEAK, options.profile());
+    assertFalse(options.destinationDispatch());
+  }
+
+  @Test
+  void testParse() {
+    var options = LoadDriver.Options.parse("--elevators=4", "--floors=-2:40", "--profile=lunch",
+        "--rate=50", "--dispatch=destination", "--priority=0");
+    assertEquals(4, options.elevators());
+    assertEquals(new FloorLimits(-2, 40), options.floors());
+    assertEquals(TrafficProfile.LUNCH, options.profile());
+    assertEquals(50, options.rate());
+    assertTrue(options.destinationDispatch());
+  }
+
+  @Test
+  void testParseInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse("--elevators"));
+    assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse("--floors=30"));
+    assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse("--rate=fast"));
+    assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse("--rate=0"));
+    assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse("--dispatch=auction"));
+    assertThrows(IllegalArgumentException.class, () -> LoadDriver.Options.parse("--speed=11"));
+  }
+
+  @Test
+  void testRun() {
+    var options = LoadDriver.Options.parse("--rate=2000", "--seconds=0.2", "--warmup=0", "--tick-ms=5");
+    var report = new LoadDriver(options).run();
+
+    assertTrue(report.requests() > 0);
+    assertEquals(report.requests(), report.latencyNanos().length);
+    assertTrue(report.latencyPercentile(50) <= report.latencyPercentile(99));
+    assertEquals(report.latencyNanos()[report.latencyNanos().length - 1], report.latencyPercentile(100));
+    // up-peak calls are mostly from the lobby, so mostly already made
+    assertTrue(report.duplicates() > report.unassigned());
+  }
+}
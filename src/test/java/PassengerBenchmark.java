@@ -0,0 +1,117 @@
+import java.util.*;
+
+/**
+ * Benchmarks load-aware dispatch, where full elevators don't bid on hall calls
+ * (see {@link Elevator#isFull()}), against load-unaware dispatch, with the same
+ * car capacity, in a passenger simulation:  passengers of a traffic profile (see
+ * {@link TrafficProfile}) wait at their floor behind a hall call, board the
+ * first car that stops there, as many as fit, and press their destination.
+ * <p>
+ * Reports passengers delivered per hour, taking a tick (a bank step, each car
+ * moving to its next stop) as {@value #TICK_SECONDS} seconds, and stops where a
+ * full car left passengers waiting.
+ * <p>
+ * Not a test, run with:  {@code java -cp target/classes:target/test-classes PassengerBenchmark}
+ */
+public class PassengerBenchmark {
+
+  private static final int ELEVATORS = 6;
+  private static final FloorLimits FLOORS = new FloorLimits(0, 30);
+  private static final int CAPACITY = 12;
+  private static final long TICKS = 3_600;
+  private static final int TICK_SECONDS = 10;
+
+  private record Result(long delivered, long fullStops) {}
+
+  public static void main(String[] args) {
+    System.out.printf("%d elevators, floors %d to %d, %d passengers per car, %d ticks of %ds%n",
+        ELEVATORS, FLOORS.min(), FLOORS.max(), CAPACITY, TICKS, TICK_SECONDS);
+    System.out.printf("%-12s %-8s %-8s %14s %12s %8s%n",
+        "profile", "arrivals", "dispatch", "delivered/hr", "full stops", "gain %");
+    for( var profile : List.of(TrafficProfile.UP_PEAK, TrafficProfile.LUNCH, TrafficProfile.INTER_FLOOR) ) {
+      for( double arrivals : new double[] { 2, 4, 8 } ) {
+        var unaware = run(profile, arrivals, false);
+        var aware = run(profile, arrivals, true);
+        System.out.println(format(profile, arrivals, "unaware", unaware, unaware));
+        System.out.println(format(profile, arrivals, "aware", aware, unaware));
+      }
+    }
+  }
+
+  private static String format(TrafficProfile profile, double arrivals, String dispatch, Result result, Result baseline) {
+    double hours = TICKS * TICK_SECONDS / 3600.0;
+    return String.format("%-12s %-8.1f %-8s %14.0f %12d %8.1f",
+        profile.profileName(),
+        arrivals,
+        dispatch,
+        result.delivered() / hours,
+        result.fullStops(),
+        100.0 * (result.delivered() - baseline.delivered()) / baseline.delivered());
+  }
+
+  /**
+   * Simulates passengers, with a bank that knows its cars' capacity (load-aware)
+   * or not, in which case capacity is only enforced at boarding.
+   */
+  private static Result run(TrafficProfile profile, double arrivals, boolean loadAware) {
+    var random = new SplittableRandom(42);
+    var bank = loadAware ? new ElevatorBank(ELEVATORS, FLOORS, CAPACITY) : new ElevatorBank(ELEVATORS, FLOORS);
+    // destinations of passengers waiting, by floor
+    Map<Integer, Deque<Integer>> waiting = new TreeMap<>();
+    List<Map<Integer, Integer>> onBoard = new ArrayList<>();
+    bank.bank.forEach(e -> onBoard.add(new HashMap<>()));
+    long[] delivered = { 0 }, fullStops = { 0 };
+    // floors a full car left passengers at, called again once it has left
+    Set<Integer> leftBehind = new HashSet<>();
+
+    for( long tick = 0; tick < TICKS; ++tick ) {
+      for( int i = poisson(random, arrivals); i > 0; --i ) {
+        var trip = profile.next(random, FLOORS);
+        waiting.computeIfAbsent(trip.origin(), floor -> new ArrayDeque<>()).add(trip.destination());
+      }
+      // a hall call for each floor with passengers, until a car has it
+      waiting.forEach((floor, destinations) -> {
+        if( destinations.isEmpty() || leftBehind.contains(floor) || held(bank, floor) ) return;
+        var direction = destinations.peek() > floor ? Direction.UP : Direction.DOWN;
+        bank.addRequest(new FloorDestination(floor, direction));
+      });
+      leftBehind.clear();
+
+      for( var e : bank.bank ) {
+        var riding = onBoard.get(e.getId());
+        e.step(visit -> {
+          int floor = visit.floor().getFloor();
+          Integer alighting = riding.remove(floor);
+          if( null != alighting ) delivered[0] += e.alight(alighting);
+
+          var destinations = waiting.get(floor);
+          if( null == destinations ) return;
+          while( !destinations.isEmpty() && e.getLoad() < CAPACITY && 1 == e.board(1) ) {
+            int destination = destinations.poll();
+            riding.merge(destination, 1, Integer::sum);
+            e.assignRequest(new FloorDestination(destination));
+          }
+          if( destinations.isEmpty() ) return;
+          fullStops[0]++;
+          leftBehind.add(floor);
+        });
+      }
+    }
+    return new Result(delivered[0], fullStops[0]);
+  }
+
+  private static boolean held(ElevatorBank bank, int floor) {
+    var request = new FloorDestination(floor);
+    return bank.bank.stream().anyMatch(e -> e.getElevatorState().hasRequest(request));
+  }
+
+  private static int poisson(SplittableRandom random, double mean) {
+    int count = 0;
+    double limit = Math.exp(-mean), product = random.nextDouble();
+    while( product > limit ) {
+      count++;
+      product *= random.nextDouble();
+    }
+    return count;
+  }
+}
@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriorityBucketsTest {
+
+  private PriorityBuckets buckets;
+  private FloorDestination low;
+  private FloorDestination lowLater;
+  private FloorDestination high;
+
+  @BeforeEach
+  void setUp() {
+    buckets = new PriorityBuckets();
+    low = new FloorDestination(9, Direction.UP, 1);
+    lowLater = new FloorDestination(2, Direction.UP, 1);
+    high = new FloorDestination(5, Direction.DOWN, Integer.MAX_VALUE);
+
+    buckets.add(low);
+    buckets.add(lowLater);
+    buckets.add(high);
+  }
+
+  @Test
+  void testPollOrder() {
+    assertEquals(3, buckets.size());
+    assertSame(high, buckets.poll());
+    assertSame(low, buckets.poll());
+    assertSame(lowLater, buckets.poll());
+    assertNull(buckets.poll());
+    assertTrue(buckets.isEmpty());
+  }
+
+  @Test
+  void testPeek() {
+    assertSame(high, buckets.peek());
+    assertEquals(3, buckets.size());
+  }
+
+  @Test
+  void testIteratorOrder() {
+    List<FloorDestination> iterated = new ArrayList<>();
+    buckets.forEach(iterated::add);
+
+    assertEquals(List.of(high, low, lowLater), iterated);
+  }
+
+  @Test
+  void testRemove() {
+    assertTrue(buckets.remove(high));
+    assertFalse(buckets.remove(high));
+    assertFalse(buckets.remove(new FloorDestination(9, Direction.UP, 2)));
+
+    assertEquals(2, buckets.size());
+    assertSame(low, buckets.peek());
+  }
+
+  @Test
+  void testClear() {
+    buckets.clear();
+
+    assertTrue(buckets.isEmpty());
+    assertNull(buckets.peek());
+  }
+
+  @Test
+  void testNullNotAllowed() {
+    assertThrows(NullPointerException.class, () -> buckets.add(null));
+  }
+}
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmarks a bank-wide recall ({@link ElevatorBank#recall(FloorDestination)}),
+ * by number of cars, each busy with pending calls:  time for the recall to redirect
+ * every car, then steps and time until every car is at the recall floor (the bank
+ * cleared), and time to end the recall.
+ * <p>
+ * Between recalls the bank resumes its calls, is topped up, and steps a random
+ * number of times, so cars are spread across floors and directions.  Worst case
+ * is the max over runs.  A step moves each car to its next stop, so a bank clears
+ * in one step unless a car has a higher priority request first.
+ * <p>
+ * Not a test, run with:  {@code java -cp target/classes:target/test-classes RecallBenchmark}
+ */
+public class RecallBenchmark {
+
+  private static final FloorLimits FLOORS = new FloorLimits(0, 60);
+  private static final FloorDestination RECALL = new FloorDestination(0, Direction.REST, 10);
+  private static final int CALLS_PER_CAR = 5;
+  private static final int MAX_STEPS = 1_000;
+
+  public static void main(String[] args) {
+    System.out.printf("%-6s %-6s %12s %12s %12s %10s %12s %12s %12s%n",
+        "cars", "runs", "recall p50", "recall p99", "recall max", "max steps", "clear p50", "clear max", "end p50");
+    System.out.printf("%-6s %-6s %12s %12s %12s %10s %12s %12s %12s%n",
+        "", "", "us", "us", "us", "", "us", "us", "us");
+    run(8, 2_000);
+    run(50, 500);
+    run(500, 50);
+  }
+
+  private static void run(int cars, int runs) {
+    var random = new Random(42);
+    var bank = new ElevatorBank(cars, FLOORS);
+    bank.setDeterministic(42);
+
+    long[] recallNanos = new long[runs];
+    long[] clearNanos = new long[runs];
+    long[] endNanos = new long[runs];
+    int maxSteps = 0;
+    for( int i = -runs / 10; i < runs; ++i ) {
+      for( var e : bank.bank ) {
+        for( int call = e.getElevatorState().workSize(); call < CALLS_PER_CAR; ++call ) {
+          e.assignRequest(new FloorDestination(random.nextInt(FLOORS.max() + 1), random.nextBoolean() ? Direction.UP : Direction.DOWN));
+        }
+      }
+      for( int step = random.nextInt(4); step > 0; --step ) bank.step();
+
+      long start = System.nanoTime();
+      if( cars != bank.recall(RECALL) ) throw new IllegalStateException("Not every car recalled");
+      long redirected = System.nanoTime();
+      int steps = 0;
+      while( !cleared(bank) ) {
+        if( ++steps > MAX_STEPS ) throw new IllegalStateException("Bank not cleared");
+        bank.step();
+      }
+      long cleared = System.nanoTime();
+      bank.endRecall();
+      long ended = System.nanoTime();
+      if( i < 0 ) continue;
+
+      recallNanos[i] = redirected - start;
+      clearNanos[i] = cleared - start;
+      endNanos[i] = ended - cleared;
+      maxSteps = Math.max(maxSteps, steps);
+    }
+    Arrays.sort(recallNanos);
+    Arrays.sort(clearNanos);
+    Arrays.sort(endNanos);
+
+    System.out.printf("%-6d %-6d %12.1f %12.1f %12.1f %10d %12.1f %12.1f %12.1f%n",
+        cars,
+        runs,
+        recallNanos[runs / 2] / 1e3,
+        recallNanos[(int) (runs * 0.99)] / 1e3,
+        recallNanos[runs - 1] / 1e3,
+        maxSteps,
+        clearNanos[runs / 2] / 1e3,
+        clearNanos[runs - 1] / 1e3,
+        endNanos[runs / 2] / 1e3);
+  }
+
+  private static boolean cleared(ElevatorBank bank) {
+    for( var e : bank.bank ) {
+      if( !e.getElevatorState().currentFloor().hasFloorNumber(RECALL.getFloor()) ) return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks {@link SimulationRunner} throughput (bank ticks per second) of a
+ * campus of elevator banks, by number of shards.
+ * <p>
+ * Not a test, run with:  {@code java -cp target/classes:target/test-classes SimulationBenchmark}
+ */
+public class SimulationBenchmark {
+
+  private static final int BANKS = 64;
+  private static final int ELEVATORS = 8;
+  private static final FloorLimits FLOORS = new FloorLimits(0, 60);
+  private static final long TICKS = 2_000;
+  private static final long BARRIER_INTERVAL = 100;
+  private static final double REQUESTS_PER_TICK = 0.5;
+
+  public static void main(String[] args) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    System.out.printf("%d cores, %d banks of %d elevators, %d ticks%n", cores, BANKS, ELEVATORS, TICKS);
+    System.out.printf("%-8s %16s %10s%n", "shards", "bank ticks/s", "speedup");
+
+    run(1); // warm up
+    double single = run(1);
+    System.out.printf("%-8d %16.0f %10.2f%n", 1, single, 1.0);
+    for( int shards = 2; shards < 2 * cores; shards *= 2 ) {
+      double throughput = run(Math.min(shards, cores));
+      System.out.printf("%-8d %16.0f %10.2f%n", Math.min(shards, cores), throughput, throughput / single);
+    }
+  }
+
+  private static double run(int shards) {
+    var workload = campus(new Random(42));
+    try( var runner = new SimulationRunner(shards) ) {
+      long start = System.nanoTime();
+      runner.run(workload, TICKS, BARRIER_INTERVAL);
+      return BANKS * TICKS / ((System.nanoTime() - start) / 1e9);
+    }
+  }
+
+  private static Map<ElevatorBank, List<ScheduledRequest>> campus(Random random) {
+    Map<ElevatorBank, List<ScheduledRequest>> workload = new LinkedHashMap<>();
+    for( int b = 0; b < BANKS; ++b ) {
+      List<ScheduledRequest> requests = new ArrayList<>();
+      for( long tick = 0; tick < TICKS; ++tick ) {
+        if( random.nextDouble() >= REQUESTS_PER_TICK ) continue;
+        int floor = FLOORS.min() + random.nextInt(FLOORS.getNumFloors() + 1);
+        var direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+        requests.add(new ScheduledRequest(tick, new FloorDestination(floor, direction)));
+      }
+      workload.put(new ElevatorBank(ELEVATORS, FLOORS), requests);
+    }
+    return workload;
+  }
+}
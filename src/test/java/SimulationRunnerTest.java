@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationRunnerTest {
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new SimulationRunner(0));
+    try( var runner = new SimulationRunner(1) ) {
+      assertThrows(IllegalArgumentException.class, () -> runner.run(Map.of(), -1, 1));
+      assertThrows(IllegalArgumentException.class, () -> runner.run(Map.of(), 1, 0));
+    }
+  }
+
+  @Test
+  void testRunEmpty() {
+    try( var runner = new SimulationRunner(2) ) {
+      assertEquals(SimulationMetrics.EMPTY, runner.run(Map.of(), 10, 1));
+    }
+  }
+
+  @Test
+  void testRunMergesShards() {
+    try( var runner = new SimulationRunner(3) ) {
+      var metrics = runner.run(campus(6), 20, 4);
+
+      assertEquals(new SimulationMetrics(6, 18, 18, 0, 18, 20), metrics);
+      assertEquals(20, runner.virtualTime());
+    }
+  }
+
+  @Test
+  void testRunSameAcrossShardCounts() {
+    SimulationMetrics oneShard;
+    try( var runner = new SimulationRunner(1) ) {
+      oneShard = runner.run(campus(5), 20, 3);
+    }
+    try( var runner = new SimulationRunner(4) ) {
+      assertEquals(oneShard, runner.run(campus(5), 20, 3));
+    }
+  }
+
+  @Test
+  void testRunStopsAtTicks() {
+    try( var runner = new SimulationRunner(2) ) {
+      var metrics = runner.run(campus(2), 2, 1);
+
+      // requests at tick 2 aren't added
+      assertEquals(4, metrics.requests());
+      assertEquals(2, runner.virtualTime());
+    }
+  }
+
+  @Test
+  void testRunShardFailure() {
+    var workload = campus(3);
+    workload.put(new ElevatorBank(1, new FloorLimits(0, 10)),
+        List.of(new ScheduledRequest(1, null)));
+
+    try( var runner = new SimulationRunner(2) ) {
+      var e = assertThrows(IllegalStateException.class, () -> runner.run(workload, 20, 1));
+      assertInstanceOf(NullPointerException.class, e.getCause());
+    }
+  }
+
+  @Test
+  void testRunShardError() {
+    var workload = campus(3);
+    workload.put(new ElevatorBank(1, new FloorLimits(0, 10)) {
+      @Override
+      public int step() {
+        throw new AssertionError("Shard error");
+      }
+    }, List.of());
+
+    try( var runner = new SimulationRunner(2) ) {
+      var e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+          () -> assertThrows(IllegalStateException.class, () -> runner.run(workload, 20, 1)));
+      assertInstanceOf(AssertionError.class, e.getCause());
+    }
+  }
+
+  /**
+   * Banks of a single elevator, each with 3 requests to different floors.
+   */
+  static Map<ElevatorBank, List<ScheduledRequest>> campus(int numBanks) {
+    Map<ElevatorBank, List<ScheduledRequest>> workload = new LinkedHashMap<>();
+    for( int i = 0; i < numBanks; ++i ) {
+      workload.put(new ElevatorBank(1, new FloorLimits(0, 10)), List.of(
+          new ScheduledRequest(2, new FloorDestination(3, Direction.DOWN)),
+          new ScheduledRequest(0, new FloorDestination(9, Direction.DOWN)),
+          new ScheduledRequest(1, new FloorDestination(5, Direction.UP))));
+    }
+    return workload;
+  }
+}
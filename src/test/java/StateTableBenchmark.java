@@ -0,0 +1,100 @@
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Benchmarks the memory of running banks, whose elevators each keep their view
+ * of the bank in an off-heap {@link ElevatorStateTable}, by number of cars:  as
+ * sites (banks) of {@value #SITE_CARS} cars, and as single banks.  Heap used per
+ * car should stay flat as cars grow, while off-heap grows with the size of each
+ * bank (every car has a slot in every view of its bank).
+ * <p>
+ * Heap is measured after GC, to within GC noise, with the banks still live.  Run
+ * with room for the largest runs, e.g.:
+ * {@code java -Xmx2g -XX:MaxDirectMemorySize=2g -cp target/classes:target/test-classes StateTableBenchmark},
+ * or give runs as cars:bankSize arguments.
+ */
+public class StateTableBenchmark {
+
+  private static final FloorLimits FLOORS = new FloorLimits(0, 100);
+  private static final int SITE_CARS = 100;
+  private static final int STEPS = 20;
+  // hall calls per bank per step, per 100 cars
+  private static final int CALLS = 2;
+
+  public static void main(String[] args) {
+    System.out.printf("%-8s %-8s %-8s %14s %14s %10s%n", "cars", "banks", "bank", "heap B/car", "off-heap B/car", "run ms");
+    if( args.length > 0 ) {
+      // e.g. 10000:100 for 10k cars, in banks of 100
+      for( var arg : args ) {
+        var cars = arg.split(":");
+        run(Integer.parseInt(cars[0]), Integer.parseInt(cars[1]));
+      }
+      return;
+    }
+    run(100, SITE_CARS);
+    run(10_000, SITE_CARS);
+    run(100_000, SITE_CARS);
+    run(250, 250);
+    run(500, 500);
+    run(1_000, 1_000);
+  }
+
+  private static void run(int cars, int bankSize) {
+    long directBefore = usedDirect();
+    long heapBefore = usedHeap();
+
+    var random = new Random(42);
+    long start = System.nanoTime();
+    List<ElevatorBank> banks = new ArrayList<>(cars / bankSize);
+    for( int i = 0; i < cars / bankSize; ++i ) banks.add(new ElevatorBank(bankSize, FLOORS));
+    for( int step = 0; step < STEPS; ++step ) {
+      for( var bank : banks ) {
+        for( int call = 0; call < Math.max(1, CALLS * bankSize / 100); ++call ) {
+          bank.addRequest(new FloorDestination(random.nextInt(FLOORS.max() + 1), random.nextBoolean() ? Direction.UP : Direction.DOWN));
+        }
+        bank.step();
+      }
+    }
+    long runNanos = System.nanoTime() - start;
+
+    long direct = usedDirect() - directBefore;
+    long heap = usedHeap() - heapBefore;
+    System.out.printf("%-8d %-8d %-8d %14d %14d %10d%n",
+        cars, banks.size(), bankSize, Math.max(0, heap) / cars, direct / cars, runNanos / 1_000_000);
+    // keep the banks live until measured
+    if( banks.isEmpty() ) System.out.print("");
+  }
+
+  private static long usedHeap() {
+    var runtime = Runtime.getRuntime();
+    for( int i = 0; i < 3; ++i ) System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Direct memory used, once buffers freed by GC are released.
+   */
+  private static long usedDirect() {
+    long used = directMemory();
+    for( long last = -1; used != last; used = directMemory() ) {
+      last = used;
+      System.gc();
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return used;
+  }
+
+  private static long directMemory() {
+    return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)
+        .stream()
+        .filter(pool -> "direct".equals(pool.getName()))
+        .mapToLong(BufferPoolMXBean::getMemoryUsed)
+        .sum();
+  }
+}
@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrafficProfileTest {
+
+  private static final FloorLimits FLOORS = new FloorLimits(-2, 20);
+  private static final int TRIPS = 10_000;
+
+  @Test
+  void testTripsWithinFloors() {
+    var random = new SplittableRandom(1);
+    for( var profile : TrafficProfile.values() ) {
+      for( int i = 0; i < TRIPS; ++i ) {
+        var trip = profile.next(random, FLOORS);
+        assertFalse(new FloorDestination(trip.origin()).isOutsideFloorLimit(FLOORS));
+        assertFalse(new FloorDestination(trip.destination()).isOutsideFloorLimit(FLOORS));
+      }
+    }
+  }
+
+  @Test
+  void testPeaksUseLobby() {
+    var random = new SplittableRandom(1);
+    int fromLobby = 0, toLobby = 0;
+    for( int i = 0; i < TRIPS; ++i ) {
+      if( 0 == TrafficProfile.UP_PEAK.next(random, FLOORS).origin() ) fromLobby++;
+      if( 0 == TrafficProfile.DOWN_PEAK.next(random, FLOORS).destination() ) toLobby++;
+    }
+    assertTrue(fromLobby > 0.8 * TRIPS);
+    assertTrue(toLobby > 0.8 * TRIPS);
+  }
+
+  @Test
+  void testLobby() {
+    assertEquals(0, TrafficProfile.lobby(FLOORS));
+    assertEquals(5, TrafficProfile.lobby(new FloorLimits(5, 10)));
+    assertEquals(-3, TrafficProfile.lobby(new FloorLimits(-10, -3)));
+  }
+
+  @Test
+  void testFromName() {
+    for( var profile : TrafficProfile.values() ) {
+      assertEquals(profile, TrafficProfile.fromName(profile.profileName()));
+    }
+    assertThrows(IllegalArgumentException.class, () -> TrafficProfile.fromName("rush"));
+    assertThrows(IllegalArgumentException.class,
+        () -> TrafficProfile.LUNCH.next(new SplittableRandom(1), new FloorLimits(3, 3)));
+  }
+}